@@ -0,0 +1,132 @@
+package com.shiningpr1sm.feedbackbot.bot;
+
+import com.shiningpr1sm.feedbackbot.model.AnalysisJob;
+import com.shiningpr1sm.feedbackbot.repository.UserSessionRepository;
+import com.shiningpr1sm.feedbackbot.service.AnalysisJobWorker;
+import com.shiningpr1sm.feedbackbot.service.FeedbackPersistenceService;
+import com.shiningpr1sm.feedbackbot.service.FeedbackTracer;
+import com.shiningpr1sm.feedbackbot.service.UserSessionCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/*
+ * FeedbackTelegramBot.onUpdateReceived -> UpdateDispatcher -> FeedbackUpdateHandler with stubbed
+ * Telegram sender and repositories. Chats cycle through /start -> role -> branch -> feedback.
+ *
+ * onUpdateReceived blocks while a stripe is full, so in steady state the measured throughput is the
+ * dispatch + handling throughput, not just the enqueue cost. handleUpdate measures the handler alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpdateDispatchBenchmark {
+
+    private static final String[] FLOW = {"/start", "МЕХАНІК", "Філія_1",
+            "Підйомник на другому посту знову тече, потрібна заміна ущільнювачів"};
+
+    @Param({"1000"})
+    public int chats;
+
+    @Param({"0", "4"})
+    public int stripes;
+
+    private FeedbackTelegramBot bot;
+    private FeedbackUpdateHandler handler;
+    private UpdateDispatcher dispatcher;
+    private Update[] updates;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // stubOnly: no invocation recording, so millions of calls do not accumulate in the mocks
+        AbsSender sender = Mockito.mock(AbsSender.class, Mockito.withSettings().stubOnly());
+        UserSessionRepository userSessionRepository = Mockito.mock(UserSessionRepository.class, Mockito.withSettings().stubOnly());
+        when(userSessionRepository.findByChatId(any())).thenReturn(Optional.empty());
+        FeedbackPersistenceService persistenceService = Mockito.mock(FeedbackPersistenceService.class, Mockito.withSettings().stubOnly());
+        AnalysisJob job = new AnalysisJob(1L);
+        job.setId(1L);
+        when(persistenceService.createPending(any(), any(), any(), any())).thenReturn(job);
+        AnalysisJobWorker analysisJobWorker = Mockito.mock(AnalysisJobWorker.class, Mockito.withSettings().stubOnly());
+        when(analysisJobWorker.dispatchNow(any())).thenReturn(true);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FeedbackTracer feedbackTracer = new FeedbackTracer(Tracer.NOOP, Propagator.NOOP);
+        UserSessionCache userSessionCache = new UserSessionCache(userSessionRepository, chats * 2, 30, meterRegistry);
+        // limits far above the benchmark's rate: the check is measured, nothing is throttled
+        FloodControl floodControl = new FloodControl(true, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE, 0, 300, 60, meterRegistry);
+        handler = new FeedbackUpdateHandler(sender, userSessionCache, persistenceService, analysisJobWorker,
+                feedbackTracer, floodControl, meterRegistry);
+        dispatcher = new UpdateDispatcher(handler, stripes, 256, 2000, feedbackTracer, meterRegistry);
+        bot = new FeedbackTelegramBot(new DefaultBotOptions(), "benchmark-token", "benchmark_bot", dispatcher);
+
+        updates = new Update[chats * FLOW.length];
+        for (int step = 0; step < FLOW.length; step++) {
+            for (int chat = 0; chat < chats; chat++) {
+                updates[step * chats + chat] = textUpdate(step * chats + chat, 1_000_000L + chat, FLOW[step]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    public void onUpdateReceived() {
+        bot.onUpdateReceived(nextUpdate());
+    }
+
+    @Benchmark
+    public void handleUpdate() {
+        handler.handleUpdate(nextUpdate());
+    }
+
+    private Update nextUpdate() {
+        return updates[(int) (sequence++ % updates.length)];
+    }
+
+    private static Update textUpdate(int updateId, long chatId, String text) {
+        Chat chat = new Chat();
+        chat.setId(chatId);
+        chat.setType("private");
+        Message message = new Message();
+        message.setMessageId(updateId);
+        message.setChat(chat);
+        message.setText(text);
+        Update update = new Update();
+        update.setUpdateId(updateId);
+        update.setMessage(message);
+        return update;
+    }
+}
@@ -0,0 +1,156 @@
+package com.shiningpr1sm.feedbackbot.controller;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackQueryRepository;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackSearchRepository;
+import com.shiningpr1sm.feedbackbot.service.AdminResponseCache;
+import com.shiningpr1sm.feedbackbot.service.FeedbackVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * AdminController filter paths (query + JSON serialization) against an embedded H2 database in PostgreSQL mode,
+ * with the admin indexes of V2 (without the partial-index predicates, which H2 does not support).
+ * cache=false measures the repository path on every call; cache=true the response cache hit path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdminQueryBenchmark {
+
+    private static final String[] BRANCHES = {"Філія_1", "Філія_2", "Сервісний_Центр", "Київ_Поділ", "Львів_Центр"};
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(excludeName = "org.telegram.telegrambots.starter.TelegramBotStarterConfiguration")
+    @EntityScan(basePackageClasses = Feedback.class)
+    @Import({FeedbackQueryRepository.class, FeedbackSearchRepository.class, AdminResponseCache.class,
+            FeedbackVersion.class, AdminController.class})
+    static class BenchmarkConfiguration {
+    }
+
+    @Param({"20000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private ConfigurableApplicationContext context;
+    private AdminController adminController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // command-line style arguments take precedence over the bot's application.properties on the classpath
+        context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.default_schema=public",
+                        "--spring.flyway.enabled=false",
+                        "--admin.cache.enabled=" + cache);
+        adminController = context.getBean(AdminController.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        EmployeeRole[] roles = EmployeeRole.values();
+        FeedbackSentiment[] sentiments = FeedbackSentiment.values();
+        LocalDateTime start = LocalDateTime.now().minusDays(365);
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{
+                    1_000_000L + i % 500,
+                    roles[i % roles.length].name(),
+                    BRANCHES[i % BRANCHES.length],
+                    "Відгук номер " + i + ": не вистачає інструментів на посту, черга клієнтів зростає.",
+                    sentiments[i % sentiments.length].name(),
+                    1 + i % 5,
+                    "Закупити додатковий комплект інструментів і перерозподілити зміни.",
+                    Timestamp.valueOf(start.plusMinutes(i * 26L)),
+                    false,
+                    "ANALYZED"});
+            if (batch.size() == 1000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO feedbacks (chat_id, employee_role, branch, message, sentiment, "
+                        + "criticality_level, resolution_suggestion, submitted_at, trello_card_created, analysis_status) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("CREATE INDEX idx_feedbacks_submitted_at_id ON feedbacks (submitted_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_feedbacks_branch_submitted_at_id ON feedbacks (branch, submitted_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_feedbacks_branch_role_submitted_at_id ON feedbacks (branch, employee_role, submitted_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_feedbacks_role_submitted_at_id ON feedbacks (employee_role, submitted_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_feedbacks_criticality_submitted_at_id ON feedbacks (criticality_level, submitted_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_feedbacks_sentiment_submitted_at_id ON feedbacks (sentiment, submitted_at, id)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static ServletWebRequest newRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/admin/api/feedbacks"), new MockHttpServletResponse());
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> firstPage() {
+        return adminController.getFeedbackPage(null, null, null, null, null, null, null, 50, "desc", newRequest());
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> branchAndRolePage() {
+        return adminController.getFeedbackPage(BRANCHES[1], "МЕХАНІК", null, null, null, null, null, 50, "desc", newRequest());
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> criticalNegativeLastMonth() {
+        LocalDateTime to = LocalDateTime.now();
+        return adminController.getFeedbackPage(null, null, 5, "NEGATIVE", to.minusDays(30).withNano(0).withSecond(0), null,
+                null, 50, "desc", newRequest());
+    }
+
+    // the unpaginated list endpoint: every matching row is loaded and serialized
+    @Benchmark
+    public ResponseEntity<byte[]> branchFullList() {
+        return adminController.getFilteredFeedback(BRANCHES[2], null, null, null, null, null, newRequest());
+    }
+}
@@ -0,0 +1,135 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shiningpr1sm.feedbackbot.service.OpenAIService.AnalysisResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Request building and response parsing of OpenAIService on realistic chat completion payloads.
+ * No network: the service is constructed with a dummy URL and its package-private helpers are called directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenAIServiceBenchmark {
+
+    private static final String FEEDBACK = "Вже третій тиждень не працює компресор у шиномонтажному боксі, "
+            + "через це клієнти чекають по дві години, а майстри змушені позичати обладнання в сусідньої філії. "
+            + "Прошу терміново вирішити питання із закупівлею або ремонтом.";
+
+    private static final String RESOLUTION = "Провести діагностику компресора силами сервісного підрядника протягом 2 днів; "
+            + "якщо ремонт недоцільний — погодити закупівлю нового та тимчасово орендувати обладнання.";
+
+    private static final int BATCH_SIZE = 10;
+
+    private ObjectMapper objectMapper;
+    private OpenAIService openAIService;
+    private String singleResponse;
+    private String batchResponse;
+    private List<String> batchTexts;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        openAIService = new OpenAIService("http://localhost", "benchmark-key", "gpt-4o-mini",
+                false, BATCH_SIZE, 200, "1", 30_000, 3,
+                objectMapper,
+                new AnalysisCache(null, false, false, 1, 1),
+                new OpenAIRateLimiter(500, 0, 0),
+                new OpenAICircuitBreaker(5, 30_000),
+                new LexiconClassifier(0.85, 6),
+                new FeedbackTracer(Tracer.NOOP, Propagator.NOOP),
+                new SimpleMeterRegistry());
+
+        ObjectNode analysis = objectMapper.createObjectNode()
+                .put("sentiment", "NEGATIVE")
+                .put("criticalityLevel", 4)
+                .put("resolutionSuggestion", RESOLUTION);
+        singleResponse = chatCompletion(analysis.toString());
+
+        ObjectNode batch = objectMapper.createObjectNode();
+        ArrayNode results = batch.putArray("results");
+        batchTexts = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            results.addObject()
+                    .put("id", i)
+                    .put("sentiment", i % 3 == 0 ? "POSITIVE" : "NEGATIVE")
+                    .put("criticalityLevel", 1 + i % 5)
+                    .put("resolutionSuggestion", RESOLUTION);
+            batchTexts.add(FEEDBACK + " #" + i);
+        }
+        batchResponse = chatCompletion(batch.toString());
+    }
+
+    // the shape of a real /v1/chat/completions response, with the analysis JSON as the message content string
+    private String chatCompletion(String content) throws JsonProcessingException {
+        ObjectNode root = objectMapper.createObjectNode()
+                .put("id", "chatcmpl-9xYzBenchmark")
+                .put("object", "chat.completion")
+                .put("created", 1_726_000_000L)
+                .put("model", "gpt-4o-mini-2024-07-18")
+                .put("system_fingerprint", "fp_benchmark");
+        ObjectNode choice = root.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.putObject("message")
+                .put("role", "assistant")
+                .put("content", content)
+                .putNull("refusal");
+        choice.putNull("logprobs");
+        choice.put("finish_reason", "stop");
+        root.putObject("usage")
+                .put("prompt_tokens", 231)
+                .put("completion_tokens", 118)
+                .put("total_tokens", 349);
+        return objectMapper.writeValueAsString(root);
+    }
+
+    @Benchmark
+    public AnalysisResult parseOpenAIResponse() {
+        return openAIService.parseOpenAIResponse(singleResponse);
+    }
+
+    @Benchmark
+    public List<AnalysisResult> parseBatchResponse() {
+        return openAIService.parseBatchResponse(batchResponse, BATCH_SIZE);
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return openAIService.buildPrompt(FEEDBACK);
+    }
+
+    @Benchmark
+    public String buildBatchPrompt() {
+        return openAIService.buildBatchPrompt(batchTexts);
+    }
+
+    // what WebClient's Jackson encoder does with the request body
+    @Benchmark
+    public byte[] buildAndSerializeRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(openAIService.buildRequest(FEEDBACK));
+    }
+}
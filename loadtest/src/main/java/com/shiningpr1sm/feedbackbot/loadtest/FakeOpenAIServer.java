@@ -0,0 +1,159 @@
+package com.shiningpr1sm.feedbackbot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Chat completions stand-in with configurable latency and injected 429 / 500 responses.
+ * Answers single and batch analysis prompts with a result derived from the feedback text.
+ */
+public class FakeOpenAIServer implements AutoCloseable {
+
+    private static final String BATCH_ITEMS_START = "Feedback items: ";
+    private static final String BATCH_ITEMS_END = "\nGive";
+    private static final String[] SENTIMENTS = {"POSITIVE", "NEUTRAL", "NEGATIVE"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double rateLimitedRate;
+    private final double errorRate;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong analyzedItems = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    public FakeOpenAIServer(long latencyMs, long latencyJitterMs, double rateLimitedRate, double errorRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.rateLimitedRate = rateLimitedRate;
+        this.errorRate = errorRate;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+    }
+
+    /*
+     * Value for openai.api.url.
+     */
+    public String getApiUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody().readAllBytes());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            Thread.sleep(latencyMs + (latencyJitterMs > 0 ? random.nextLong(latencyJitterMs + 1) : 0));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        double roll = random.nextDouble();
+        if (roll < rateLimitedRate) {
+            rateLimited.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.getResponseHeaders().set("x-ratelimit-remaining-requests", "0");
+            exchange.getResponseHeaders().set("x-ratelimit-reset-requests", "1s");
+            send(exchange, 429, errorBody("Rate limit reached", "rate_limit_exceeded"));
+            return;
+        }
+        if (roll < rateLimitedRate + errorRate) {
+            errors.incrementAndGet();
+            send(exchange, 500, errorBody("The server had an error while processing your request", "server_error"));
+            return;
+        }
+
+        String userPrompt = "";
+        for (JsonNode message : request.path("messages")) {
+            if ("user".equals(message.path("role").asText())) {
+                userPrompt = message.path("content").asText();
+            }
+        }
+
+        ObjectNode content;
+        int itemsStart = userPrompt.indexOf(BATCH_ITEMS_START);
+        if (itemsStart >= 0) {
+            int itemsEnd = userPrompt.lastIndexOf(BATCH_ITEMS_END);
+            JsonNode items = objectMapper.readTree(userPrompt.substring(itemsStart + BATCH_ITEMS_START.length(), itemsEnd));
+            content = objectMapper.createObjectNode();
+            ArrayNode results = content.putArray("results");
+            for (JsonNode item : items) {
+                results.add(analysis(item.path("text").asText()).put("id", item.path("id").asInt()));
+            }
+            analyzedItems.addAndGet(items.size());
+        } else {
+            content = analysis(userPrompt);
+            analyzedItems.incrementAndGet();
+        }
+
+        ObjectNode response = objectMapper.createObjectNode()
+                .put("id", "chatcmpl-loadtest-" + requests.get())
+                .put("object", "chat.completion")
+                .put("created", System.currentTimeMillis() / 1000)
+                .put("model", request.path("model").asText());
+        ObjectNode choice = response.putArray("choices").addObject().put("index", 0).put("finish_reason", "stop");
+        choice.putObject("message").put("role", "assistant").put("content", objectMapper.writeValueAsString(content));
+        response.putObject("usage").put("prompt_tokens", userPrompt.length() / 4).put("completion_tokens", 60);
+        send(exchange, 200, objectMapper.writeValueAsBytes(response));
+    }
+
+    private ObjectNode analysis(String text) {
+        // deterministic per text, so repeated texts also exercise the analysis cache consistently
+        int hash = Math.abs(text.hashCode() % 15);
+        return objectMapper.createObjectNode()
+                .put("sentiment", SENTIMENTS[hash % 3])
+                .put("criticalityLevel", hash % 5 + 1)
+                .put("resolutionSuggestion", "Розглянути відгук на найближчій нараді філії.");
+    }
+
+    private byte[] errorBody(String message, String code) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putObject("error").put("message", message).put("type", code).put("code", code);
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getAnalyzedItems() {
+        return analyzedItems.get();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
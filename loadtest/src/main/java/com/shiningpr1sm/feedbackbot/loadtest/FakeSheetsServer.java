@@ -0,0 +1,80 @@
+package com.shiningpr1sm.feedbackbot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Sheets API v4 values stand-in: header reads come back empty, header updates are accepted,
+ * appends count the rows they carry.
+ */
+public class FakeSheetsServer implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final long latencyMs;
+
+    private final AtomicLong appendRequests = new AtomicLong();
+    private final AtomicLong appendedRows = new AtomicLong();
+
+    public FakeSheetsServer(long latencyMs) throws IOException {
+        this.latencyMs = latencyMs;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v4/spreadsheets/", this::handle);
+        server.start();
+    }
+
+    /*
+     * Value for google.sheets.root-url.
+     */
+    public String getRootUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] requestBody = exchange.getRequestBody().readAllBytes();
+        String path = exchange.getRequestURI().getPath();
+        ObjectNode response = objectMapper.createObjectNode();
+
+        if ("POST".equals(exchange.getRequestMethod()) && path.endsWith(":append")) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            JsonNode values = objectMapper.readTree(requestBody).path("values");
+            appendRequests.incrementAndGet();
+            appendedRows.addAndGet(values.size());
+            response.putObject("updates").put("updatedRows", values.size());
+        }
+
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public long getAppendRequests() {
+        return appendRequests.get();
+    }
+
+    public long getAppendedRows() {
+        return appendedRows.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
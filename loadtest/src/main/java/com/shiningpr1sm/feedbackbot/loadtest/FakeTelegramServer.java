@@ -0,0 +1,162 @@
+package com.shiningpr1sm.feedbackbot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Bot API stand-in: the driver queues incoming user messages that the bot receives via getUpdates,
+ * and every sendMessage of the bot lands in the recipient chat's inbox. Other methods answer ok.
+ */
+public class FakeTelegramServer implements AutoCloseable {
+
+    public record SentMessage(long chatId, String text, long receivedAtNanos) {
+    }
+
+    private static final long MAX_POLL_WAIT_MS = 10_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+
+    // guarded by "pendingUpdates"
+    private final List<ObjectNode> pendingUpdates = new ArrayList<>();
+    private final AtomicInteger nextUpdateId = new AtomicInteger(1);
+    private final AtomicInteger nextMessageId = new AtomicInteger(1);
+    private final Map<Long, BlockingQueue<SentMessage>> inboxes = new ConcurrentHashMap<>();
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong getUpdatesCalls = new AtomicLong();
+
+    public FakeTelegramServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /*
+     * Base URL for telegram.bot.api-url.
+     */
+    public String getApiUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/bot";
+    }
+
+    public void sendUserMessage(long chatId, String text) {
+        int updateId = nextUpdateId.getAndIncrement();
+        ObjectNode update = objectMapper.createObjectNode().put("update_id", updateId);
+        ObjectNode message = update.putObject("message")
+                .put("message_id", updateId)
+                .put("date", System.currentTimeMillis() / 1000)
+                .put("text", text);
+        message.putObject("chat").put("id", chatId).put("type", "private");
+        message.putObject("from").put("id", chatId).put("is_bot", false).put("first_name", "Load");
+        synchronized (pendingUpdates) {
+            pendingUpdates.add(update);
+            pendingUpdates.notifyAll();
+        }
+    }
+
+    /*
+     * Waits for the next message the bot sends to chatId; null on timeout.
+     */
+    public SentMessage awaitMessage(long chatId, long timeoutMs) throws InterruptedException {
+        return inbox(chatId).poll(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private BlockingQueue<SentMessage> inbox(long chatId) {
+        return inboxes.computeIfAbsent(chatId, id -> new LinkedBlockingQueue<>());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+        byte[] requestBody = exchange.getRequestBody().readAllBytes();
+        JsonNode request = requestBody.length > 0 ? objectMapper.readTree(requestBody) : objectMapper.createObjectNode();
+
+        ObjectNode response = objectMapper.createObjectNode().put("ok", true);
+        try {
+            switch (method) {
+                case "getupdates" -> response.set("result", getUpdates(request));
+                case "sendmessage" -> response.set("result", sendMessage(request));
+                default -> response.put("result", true);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.set("result", objectMapper.createArrayNode());
+        }
+
+        byte[] body = objectMapper.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private ArrayNode getUpdates(JsonNode request) throws InterruptedException {
+        getUpdatesCalls.incrementAndGet();
+        long offset = request.path("offset").asLong(0);
+        int limit = request.path("limit").asInt(100);
+        long waitMs = Math.min(MAX_POLL_WAIT_MS, request.path("timeout").asLong(0) * 1000);
+        long deadline = System.currentTimeMillis() + waitMs;
+
+        ArrayNode result = objectMapper.createArrayNode();
+        synchronized (pendingUpdates) {
+            // updates below the offset are confirmed by the bot
+            pendingUpdates.removeIf(update -> update.get("update_id").asLong() < offset);
+            while (pendingUpdates.isEmpty() && System.currentTimeMillis() < deadline) {
+                pendingUpdates.wait(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+            for (Iterator<ObjectNode> iterator = pendingUpdates.iterator(); iterator.hasNext() && result.size() < limit; ) {
+                result.add(iterator.next());
+            }
+        }
+        return result;
+    }
+
+    private ObjectNode sendMessage(JsonNode request) {
+        long chatId = request.path("chat_id").asLong();
+        String text = request.path("text").asText();
+        inbox(chatId).add(new SentMessage(chatId, text, System.nanoTime()));
+        sentMessages.incrementAndGet();
+
+        ObjectNode message = objectMapper.createObjectNode()
+                .put("message_id", nextMessageId.getAndIncrement())
+                .put("date", System.currentTimeMillis() / 1000)
+                .put("text", text);
+        message.putObject("chat").put("id", chatId).put("type", "private");
+        return message;
+    }
+
+    public long getSentMessages() {
+        return sentMessages.get();
+    }
+
+    public long getGetUpdatesCalls() {
+        return getUpdatesCalls.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,208 @@
+package com.shiningpr1sm.feedbackbot.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shiningpr1sm.feedbackbot.FeedbackBotApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Offline end-to-end load test: runs the bot against local stand-ins for the Telegram Bot API,
+ * OpenAI and Google Sheets, drives N virtual users through the whole dialog and reports throughput
+ * and feedback-to-analysis latency. Needs a local PostgreSQL (loadtest.datasource.*).
+ * Program arguments are passed on to the application, e.g. --openai.batch.enabled=true.
+ */
+public class LoadTest {
+
+    private static final long FIRST_CHAT_ID = 1_000_000L;
+    private static final String ANALYZED_PREFIX = "Ваш відгук проаналізовано";
+    private static final String ANALYSIS_FAILED_PREFIX = "Виникла неочікувана помилка";
+    private static final String[] FEEDBACK_TEXTS = {
+            "Не вистачає інструментів для діагностики, доводиться чекати на спільний сканер.",
+            "Графік змін складають в останній момент, важко планувати вихідні.",
+            "Дякую керівнику філії за підтримку під час завантаженого тижня.",
+            "У боксі номер три протікає дах, під час дощу працювати небезпечно.",
+            "Запчастини від нового постачальника часто приходять не ті, клієнти чекають."
+    };
+
+    private final LoadTestOptions options;
+    private final FakeTelegramServer telegram;
+
+    private final ConcurrentLinkedQueue<Long> analysisLatenciesNanos = new ConcurrentLinkedQueue<>();
+    private final AtomicLong analyzed = new AtomicLong();
+    private final AtomicLong analysisFailures = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private LoadTest(LoadTestOptions options, FakeTelegramServer telegram) {
+        this.options = options;
+        this.telegram = telegram;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        try (FakeTelegramServer telegram = new FakeTelegramServer();
+             FakeOpenAIServer openAi = new FakeOpenAIServer(options.openAiLatencyMs(), options.openAiLatencyJitterMs(),
+                     options.openAiRateLimitedRate(), options.openAiErrorRate());
+             FakeSheetsServer sheets = new FakeSheetsServer(options.sheetsLatencyMs())) {
+
+            List<String> appArgs = new ArrayList<>(List.of(
+                    "--telegram.bot.token=loadtest-token",
+                    "--telegram.bot.username=loadtest_bot",
+                    "--telegram.bot.mode=polling",
+                    "--telegram.bot.api-url=" + telegram.getApiUrl(),
+                    "--openai.api.url=" + openAi.getApiUrl(),
+                    "--openai.api.key=loadtest-key",
+                    "--google.sheets.root-url=" + sheets.getRootUrl(),
+                    "--google.sheets.credentials-path=",
+                    "--google.sheets.spreadsheet-id=loadtest-spreadsheet",
+                    // the virtual users would trip the per-chat and global limits long before the pipeline saturates
+                    "--bot.flood.enabled=false",
+                    "--spring.datasource.url=" + options.datasourceUrl(),
+                    "--spring.datasource.username=" + options.datasourceUsername(),
+                    "--spring.datasource.password=" + options.datasourcePassword(),
+                    "--server.port=0"));
+            appArgs.addAll(Arrays.asList(args));
+
+            Map<String, Object> report;
+            try (ConfigurableApplicationContext context = SpringApplication.run(FeedbackBotApplication.class, appArgs.toArray(String[]::new))) {
+                report = new LoadTest(options, telegram).run();
+            }
+
+            Map<String, Object> openAiStats = new LinkedHashMap<>();
+            openAiStats.put("requests", openAi.getRequests());
+            openAiStats.put("analyzedItems", openAi.getAnalyzedItems());
+            openAiStats.put("rateLimited", openAi.getRateLimited());
+            openAiStats.put("errors", openAi.getErrors());
+            report.put("openai", openAiStats);
+
+            Map<String, Object> sheetsStats = new LinkedHashMap<>();
+            sheetsStats.put("appendRequests", sheets.getAppendRequests());
+            sheetsStats.put("appendedRows", sheets.getAppendedRows());
+            report.put("sheets", sheetsStats);
+
+            Map<String, Object> telegramStats = new LinkedHashMap<>();
+            telegramStats.put("sentMessages", telegram.getSentMessages());
+            telegramStats.put("getUpdatesCalls", telegram.getGetUpdatesCalls());
+            report.put("telegram", telegramStats);
+
+            ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            File reportFile = new File(options.reportPath());
+            if (reportFile.getParentFile() != null) {
+                reportFile.getParentFile().mkdirs();
+            }
+            objectMapper.writeValue(reportFile, report);
+            System.out.println(objectMapper.writeValueAsString(report));
+            System.out.println("Load test report written to " + reportFile.getAbsolutePath());
+        }
+        // the bot's polling threads are not daemons
+        System.exit(0);
+    }
+
+    private Map<String, Object> run() throws InterruptedException {
+        long startedAt = System.nanoTime();
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.users(); i++) {
+                long chatId = FIRST_CHAT_ID + i;
+                int userIndex = i;
+                users.submit(() -> runUser(chatId, userIndex));
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        long[] latencies = analysisLatenciesNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        long expected = (long) options.users() * options.feedbacksPerUser();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", options.users());
+        report.put("feedbacksPerUser", options.feedbacksPerUser());
+        report.put("expectedFeedbacks", expected);
+        report.put("analyzedFeedbacks", analyzed.get());
+        report.put("analysisFailures", analysisFailures.get());
+        report.put("timeouts", timeouts.get());
+        report.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.put("throughputPerSecond", elapsedNanos > 0 ? analyzed.get() * 1_000_000_000.0 / elapsedNanos : 0.0);
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50Ms", percentileMillis(latencies, 0.50));
+        latency.put("p90Ms", percentileMillis(latencies, 0.90));
+        latency.put("p99Ms", percentileMillis(latencies, 0.99));
+        latency.put("maxMs", latencies.length > 0 ? TimeUnit.NANOSECONDS.toMillis(latencies[latencies.length - 1]) : 0);
+        report.put("feedbackToAnalysisLatency", latency);
+        return report;
+    }
+
+    private void runUser(long chatId, int userIndex) {
+        try {
+            if (!step(chatId, "/start") || !step(chatId, "МЕХАНІК") || !step(chatId, "Філія_" + (userIndex % 20))) {
+                return;
+            }
+            for (int i = 0; i < options.feedbacksPerUser(); i++) {
+                String text = FEEDBACK_TEXTS[(userIndex + i) % FEEDBACK_TEXTS.length] + " (#" + chatId + "-" + i + ")";
+                long sentAt = System.nanoTime();
+                telegram.sendUserMessage(chatId, text);
+                if (!awaitAnalysis(chatId, sentAt)) {
+                    return;
+                }
+                Thread.sleep(options.thinkTimeMs());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Sends a dialog message and waits for the bot's reply.
+     */
+    private boolean step(long chatId, String text) throws InterruptedException {
+        telegram.sendUserMessage(chatId, text);
+        if (telegram.awaitMessage(chatId, options.stepTimeoutMs()) == null) {
+            timeouts.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /*
+     * Skips the acknowledgement (and a possible "analysis delayed" notice) until the analysis result arrives.
+     */
+    private boolean awaitAnalysis(long chatId, long sentAt) throws InterruptedException {
+        long deadline = sentAt + TimeUnit.MILLISECONDS.toNanos(options.stepTimeoutMs());
+        while (true) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            FakeTelegramServer.SentMessage reply = remainingMs > 0 ? telegram.awaitMessage(chatId, remainingMs) : null;
+            if (reply == null) {
+                timeouts.incrementAndGet();
+                return false;
+            }
+            if (reply.text().startsWith(ANALYZED_PREFIX)) {
+                analyzed.incrementAndGet();
+                analysisLatenciesNanos.add(reply.receivedAtNanos() - sentAt);
+                return true;
+            }
+            if (reply.text().startsWith(ANALYSIS_FAILED_PREFIX)) {
+                analysisFailures.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    private static long percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos[Math.max(0, index)]);
+    }
+}
@@ -0,0 +1,36 @@
+package com.shiningpr1sm.feedbackbot.loadtest;
+
+/*
+ * Load test parameters, read from system properties (-Dloadtest.users=200 ...).
+ */
+public record LoadTestOptions(int users,
+                              int feedbacksPerUser,
+                              long thinkTimeMs,
+                              long stepTimeoutMs,
+                              long openAiLatencyMs,
+                              long openAiLatencyJitterMs,
+                              double openAiRateLimitedRate,
+                              double openAiErrorRate,
+                              long sheetsLatencyMs,
+                              String datasourceUrl,
+                              String datasourceUsername,
+                              String datasourcePassword,
+                              String reportPath) {
+
+    public static LoadTestOptions fromSystemProperties() {
+        return new LoadTestOptions(
+                Integer.getInteger("loadtest.users", 100),
+                Integer.getInteger("loadtest.feedbacks-per-user", 3),
+                Long.getLong("loadtest.think-time-ms", 200),
+                Long.getLong("loadtest.step-timeout-ms", 60_000),
+                Long.getLong("loadtest.openai.latency-ms", 800),
+                Long.getLong("loadtest.openai.latency-jitter-ms", 400),
+                Double.parseDouble(System.getProperty("loadtest.openai.rate-limited-rate", "0.02")),
+                Double.parseDouble(System.getProperty("loadtest.openai.error-rate", "0.01")),
+                Long.getLong("loadtest.sheets.latency-ms", 150),
+                System.getProperty("loadtest.datasource.url", "jdbc:postgresql://localhost:5432/feedback_loadtest"),
+                System.getProperty("loadtest.datasource.username", "postgres"),
+                System.getProperty("loadtest.datasource.password", "postgres"),
+                System.getProperty("loadtest.report", "target/loadtest-report.json"));
+    }
+}
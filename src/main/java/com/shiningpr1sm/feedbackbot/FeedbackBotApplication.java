@@ -2,10 +2,12 @@ package com.shiningpr1sm.feedbackbot;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.telegram.telegrambots.starter.TelegramBotStarterConfiguration;
 import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@EnableScheduling
 @Import(TelegramBotStarterConfiguration.class)
 public class FeedbackBotApplication {
 
@@ -0,0 +1,95 @@
+package com.shiningpr1sm.feedbackbot.bot;
+
+import com.shiningpr1sm.feedbackbot.service.ClusterCoordinator;
+import com.shiningpr1sm.feedbackbot.service.ClusterLeaseChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.BotSession;
+
+/*
+ * Long polling in cluster mode: two getUpdates loops on one token conflict, so only the holder of the ingestion
+ * lease polls, and it routes every update to its chat's owner. The session is started and stopped as the lease
+ * moves. The bot is deliberately not a LongPollingBot bean, which TelegramBotStarterConfiguration would start
+ * on every node.
+ */
+@Component
+@ConditionalOnExpression("'${telegram.bot.mode:polling}' == 'polling' and ${cluster.enabled:false}")
+public class ClusterPollingBot {
+
+    private final TelegramLongPollingBot bot;
+    private final TelegramBotsApi telegramBotsApi;
+    private final ClusterCoordinator clusterCoordinator;
+    // guarded by "this"
+    private BotSession session;
+
+    public ClusterPollingBot(DefaultBotOptions telegramBotOptions,
+                             @Value("${telegram.bot.token}") String botToken,
+                             @Value("${telegram.bot.username}") String botUsername,
+                             ClusterUpdateRouter clusterUpdateRouter,
+                             TelegramBotsApi telegramBotsApi,
+                             ClusterCoordinator clusterCoordinator) {
+        this.bot = new TelegramLongPollingBot(telegramBotOptions, botToken) {
+            @Override
+            public String getBotUsername() {
+                return botUsername;
+            }
+
+            @Override
+            public void onUpdateReceived(Update update) {
+                try {
+                    clusterUpdateRouter.route(update);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        this.telegramBotsApi = telegramBotsApi;
+        this.clusterCoordinator = clusterCoordinator;
+    }
+
+    @EventListener
+    public void onLeaseChanged(ClusterLeaseChangedEvent event) {
+        if (!ClusterCoordinator.INGESTION_LEASE.equals(event.lease())) {
+            return;
+        }
+        if (event.held()) {
+            start();
+        } else {
+            stop();
+        }
+    }
+
+    private synchronized void start() {
+        if (session != null && session.isRunning()) {
+            return;
+        }
+        try {
+            session = telegramBotsApi.registerBot(bot);
+            System.out.println("Telegram long polling started on this node");
+        } catch (TelegramApiException e) {
+            System.err.println("Could not start Telegram long polling, handing the ingestion lease on: " + e.getMessage());
+            clusterCoordinator.releaseLease(ClusterCoordinator.INGESTION_LEASE);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (session != null && session.isRunning()) {
+            session.stop();
+            System.out.println("Telegram long polling stopped on this node");
+        }
+        session = null;
+    }
+
+    public synchronized boolean isPolling() {
+        return session != null && session.isRunning();
+    }
+}
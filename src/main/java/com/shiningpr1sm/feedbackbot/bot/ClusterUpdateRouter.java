@@ -0,0 +1,255 @@
+package com.shiningpr1sm.feedbackbot.bot;
+
+import com.shiningpr1sm.feedbackbot.repository.ClusterNode;
+import com.shiningpr1sm.feedbackbot.service.ClusterCoordinator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Sends an incoming update to the node that owns its chat (see ClusterCoordinator): local chats go straight to the
+ * UpdateDispatcher, the others are posted to the owner's /internal/cluster/updates.
+ *
+ * Every remote node has a forwarding lane, a bounded queue drained in order by its own virtual thread, so an owner
+ * that is busy or slow only holds up its own chats. A lane retries an update until the owner accepts it; a timeout
+ * does not prove the update was lost, so it is retried to the same owner, which drops duplicates by update_id.
+ * Only when the coordinator no longer lists the owner as live does the update go to the chat's new owner (possibly
+ * this node). That keeps each chat, and its user_sessions row, on a single node.
+ */
+@Component
+public class ClusterUpdateRouter {
+
+    static final String SECRET_HEADER = "X-Cluster-Secret";
+    static final String UPDATES_PATH = "/internal/cluster/updates";
+
+    private static final long INITIAL_RETRY_MS = 100;
+    private static final long MAX_RETRY_MS = 5_000;
+    private static final long LANE_IDLE_MS = 60_000;
+
+    private enum Forwarded { ACCEPTED, BUSY, FAILED }
+
+    private final UpdateDispatcher updateDispatcher;
+    private final ClusterCoordinator clusterCoordinator;
+    private final WebClient webClient;
+    private final Duration forwardTimeout;
+    private final int laneCapacity;
+    private final long offerTimeoutMs;
+    private final ConcurrentHashMap<String, ForwardLane> lanes = new ConcurrentHashMap<>();
+    private final AtomicLong acceptedForwards = new AtomicLong();
+    private final AtomicLong busyForwards = new AtomicLong();
+    private final AtomicLong failedForwards = new AtomicLong();
+
+    public ClusterUpdateRouter(UpdateDispatcher updateDispatcher,
+                               ClusterCoordinator clusterCoordinator,
+                               @Value("${cluster.secret:}") String secret,
+                               @Value("${cluster.forward-timeout-ms:5000}") long forwardTimeoutMs,
+                               @Value("${cluster.forward-queue-capacity:1000}") int laneCapacity,
+                               @Value("${telegram.bot.dispatcher.offer-timeout-ms:2000}") long offerTimeoutMs,
+                               MeterRegistry meterRegistry) {
+        this.updateDispatcher = updateDispatcher;
+        this.clusterCoordinator = clusterCoordinator;
+        this.webClient = WebClient.builder()
+                .defaultHeader(SECRET_HEADER, secret)
+                .build();
+        this.forwardTimeout = Duration.ofMillis(forwardTimeoutMs);
+        this.laneCapacity = Math.max(1, laneCapacity);
+        this.offerTimeoutMs = offerTimeoutMs;
+        registerForwardedCounter("accepted", acceptedForwards, meterRegistry);
+        registerForwardedCounter("busy", busyForwards, meterRegistry);
+        registerForwardedCounter("failed", failedForwards, meterRegistry);
+        Gauge.builder("feedbackbot.cluster.forward.queued", this, ClusterUpdateRouter::getQueuedForwards)
+                .description("Updates waiting in the forwarding lanes")
+                .register(meterRegistry);
+    }
+
+    private static void registerForwardedCounter(String outcome, AtomicLong count, MeterRegistry meterRegistry) {
+        FunctionCounter.builder("feedbackbot.cluster.forwarded", count, AtomicLong::get)
+                .description("Attempts to forward an update to the node owning its chat")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /*
+     * Long polling: blocks only while the chat's stripe (or its owner's lane) is full.
+     */
+    public void route(Update update) throws InterruptedException {
+        ClusterNode owner = remoteOwnerOf(update);
+        if (owner == null) {
+            updateDispatcher.submit(update);
+            return;
+        }
+        while (!laneFor(owner).offer(update, Long.MAX_VALUE)) {
+            // the lane retired meanwhile; the next one is created fresh
+        }
+    }
+
+    /*
+     * Webhook: returns false when the chat's stripe (or its owner's lane) stays full, so Telegram redelivers later.
+     */
+    public boolean tryRoute(Update update) throws InterruptedException {
+        ClusterNode owner = remoteOwnerOf(update);
+        if (owner == null) {
+            return updateDispatcher.trySubmit(update);
+        }
+        long deadline = System.currentTimeMillis() + offerTimeoutMs;
+        while (true) {
+            ForwardLane lane = laneFor(owner);
+            if (lane.offer(update, Math.max(0, deadline - System.currentTimeMillis()))) {
+                return true;
+            }
+            if (!lane.retired) {
+                return false;
+            }
+        }
+    }
+
+    private ForwardLane laneFor(ClusterNode owner) {
+        return lanes.computeIfAbsent(owner.nodeId(), ForwardLane::new);
+    }
+
+    private ClusterNode remoteOwnerOf(Update update) {
+        if (!update.hasMessage()) {
+            return null;
+        }
+        ClusterNode owner = clusterCoordinator.ownerOf(update.getMessage().getChatId());
+        return owner == null || owner.nodeId().equals(clusterCoordinator.getNodeId()) ? null : owner;
+    }
+
+    /*
+     * Retries until the current owner of the chat has the update; the owner is looked up again before every
+     * attempt, so the update follows the chat when the coordinator drops a dead node.
+     */
+    private void deliver(Update update) throws InterruptedException {
+        long retryMs = INITIAL_RETRY_MS;
+        while (true) {
+            ClusterNode owner = remoteOwnerOf(update);
+            if (owner == null) {
+                updateDispatcher.submit(update);
+                return;
+            }
+            if (forward(owner, update) == Forwarded.ACCEPTED) {
+                return;
+            }
+            Thread.sleep(retryMs);
+            retryMs = Math.min(retryMs * 2, MAX_RETRY_MS);
+        }
+    }
+
+    private Forwarded forward(ClusterNode owner, Update update) {
+        try {
+            webClient.post()
+                    .uri(owner.baseUrl() + UPDATES_PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(update)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block(forwardTimeout);
+            acceptedForwards.incrementAndGet();
+            return Forwarded.ACCEPTED;
+        } catch (WebClientResponseException.ServiceUnavailable e) {
+            busyForwards.incrementAndGet();
+            return Forwarded.BUSY;
+        } catch (RuntimeException e) {
+            failedForwards.incrementAndGet();
+            System.err.println("Could not forward update " + update.getUpdateId() + " to node " + owner.nodeId()
+                    + ", retrying: " + e.getMessage());
+            return Forwarded.FAILED;
+        }
+    }
+
+    public long getAcceptedForwards() {
+        return acceptedForwards.get();
+    }
+
+    public long getBusyForwards() {
+        return busyForwards.get();
+    }
+
+    public long getFailedForwards() {
+        return failedForwards.get();
+    }
+
+    public int getQueuedForwards() {
+        int queued = 0;
+        for (ForwardLane lane : lanes.values()) {
+            queued += lane.queue.size();
+        }
+        return queued;
+    }
+
+    /*
+     * Updates for one remote node, forwarded in arrival order. A lane that stayed empty for a while retires
+     * (node ids change with every restart); an update offered to a retired lane is handed back to the caller.
+     */
+    private final class ForwardLane {
+        private final String nodeId;
+        private final BlockingQueue<Update> queue = new ArrayBlockingQueue<>(laneCapacity);
+        // written under the lane's lock
+        private volatile boolean retired;
+
+        private ForwardLane(String nodeId) {
+            this.nodeId = nodeId;
+            Thread.ofVirtual().name("cluster-forward-" + nodeId).start(this::run);
+        }
+
+        /*
+         * Returns false when the lane stayed full for timeoutMs or has retired.
+         */
+        private boolean offer(Update update, long timeoutMs) throws InterruptedException {
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                if (queue.offer(update)) {
+                    return true;
+                }
+            }
+            // full: the lane cannot retire before it is empty, so waiting outside the lock is safe
+            if (!queue.offer(update, timeoutMs, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            if (retired && queue.remove(update)) {
+                // drained and retired before this update landed: nobody will take it from here
+                return false;
+            }
+            return true;
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    Update update = queue.poll(LANE_IDLE_MS, TimeUnit.MILLISECONDS);
+                    if (update != null) {
+                        deliver(update);
+                    } else if (retire()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private synchronized boolean retire() {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+            retired = true;
+            lanes.remove(nodeId, this);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.shiningpr1sm.feedbackbot.bot;
+
+import com.shiningpr1sm.feedbackbot.model.AnalysisJob;
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.UserSession;
+import com.shiningpr1sm.feedbackbot.model.UserState;
+import com.shiningpr1sm.feedbackbot.service.AnalysisJobWorker;
+import com.shiningpr1sm.feedbackbot.service.FeedbackPersistenceService;
+import com.shiningpr1sm.feedbackbot.service.FeedbackTracer;
+import com.shiningpr1sm.feedbackbot.service.UserSessionCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.SneakyThrows;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.ReplyKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.KeyboardRow;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class FeedbackUpdateHandler {
+
+    private final AbsSender telegramSender;
+    private final UserSessionCache userSessionCache;
+    private final FeedbackPersistenceService feedbackPersistenceService;
+    private final AnalysisJobWorker analysisJobWorker;
+    private final FeedbackTracer feedbackTracer;
+    private final FloodControl floodControl;
+    private final Timer createPendingTimer;
+    private final Counter delayedAnalyses;
+
+    public FeedbackUpdateHandler(AbsSender telegramSender,
+                                 UserSessionCache userSessionCache,
+                                 FeedbackPersistenceService feedbackPersistenceService,
+                                 AnalysisJobWorker analysisJobWorker,
+                                 FeedbackTracer feedbackTracer,
+                                 FloodControl floodControl,
+                                 MeterRegistry meterRegistry) {
+        this.telegramSender = telegramSender;
+        this.userSessionCache = userSessionCache;
+        this.feedbackPersistenceService = feedbackPersistenceService;
+        this.analysisJobWorker = analysisJobWorker;
+        this.feedbackTracer = feedbackTracer;
+        this.floodControl = floodControl;
+        this.createPendingTimer = Timer.builder("feedbackbot.db.save")
+                .tag("operation", "create_pending")
+                .register(meterRegistry);
+        this.delayedAnalyses = Counter.builder("feedbackbot.analysis.delayed")
+                .description("Feedbacks left in the job queue because the analysis executor was full")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Transport-agnostic entry point: called by the long polling bot and by the webhook endpoint.
+     * Flood control runs first, so a flooding chat costs neither a session lookup nor a feedback row.
+     */
+    @SneakyThrows
+    public void handleUpdate(Update update) {
+        if (update.hasMessage() && update.getMessage().hasText()) {
+            Long chatId = update.getMessage().getChatId();
+            String messageText = update.getMessage().getText();
+
+            FloodControl.Verdict verdict = floodControl.check(chatId);
+            if (verdict != FloodControl.Verdict.ALLOWED) {
+                handleFlood(chatId, verdict);
+                return;
+            }
+
+            UserSession userSession = userSessionCache.get(chatId);
+            if (userSession.getState() == UserState.BLOCKED) {
+                if (floodControl.isStillBlocked(userSession)) {
+                    return;
+                }
+                userSessionCache.save(userSession);
+            }
+
+            if (messageText.equals("/start")) {
+                handleStartCommand(chatId, userSession);
+            } else {
+                handleMessageByState(chatId, messageText, userSession);
+            }
+        }
+    }
+
+    private void handleFlood(Long chatId, FloodControl.Verdict verdict) throws TelegramApiException {
+        String text;
+        switch (verdict) {
+            case THROTTLED:
+                text = "Ви надсилаєте повідомлення занадто часто. Будь ласка, зачекайте хвилину перед наступним відгуком.";
+                break;
+            case BUSY:
+                text = "Зараз бот отримує забагато повідомлень. Будь ласка, спробуйте трохи пізніше.";
+                break;
+            case BLOCKED:
+                UserSession userSession = userSessionCache.get(chatId);
+                floodControl.block(userSession);
+                userSessionCache.save(userSession);
+                text = "Через надмірну кількість повідомлень ваш чат тимчасово заблоковано. Спробуйте пізніше.";
+                break;
+            default:
+                return;
+        }
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId.toString());
+        message.setText(text);
+        telegramSender.execute(message);
+    }
+
+    private void handleStartCommand(Long chatId, UserSession userSession) throws TelegramApiException {
+        userSession.setState(UserState.AWAITING_ROLE);
+        userSessionCache.save(userSession);
+
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId.toString());
+        message.setText("Вітаємо в боті анонімних відгуків! Будь ласка, оберіть вашу посаду:");
+        message.setReplyMarkup(createRoleKeyboard());
+        telegramSender.execute(message);
+    }
+
+    private void handleMessageByState(Long chatId, String messageText, UserSession userSession) throws TelegramApiException {
+        switch (userSession.getState()) {
+            case AWAITING_ROLE:
+                try {
+                    EmployeeRole role = EmployeeRole.valueOf(messageText.toUpperCase());
+                    userSession.setRole(role);
+                    userSession.setState(UserState.AWAITING_BRANCH);
+                    userSessionCache.save(userSession);
+
+                    SendMessage message = new SendMessage();
+                    message.setChatId(chatId.toString());
+                    message.setText("Ви обрали: " + role.name() + ". Тепер, будь ласка, введіть назву вашої філії (наприклад, 'Філія_1', 'Сервісний_Центр'):");
+                    telegramSender.execute(message);
+                } catch (IllegalArgumentException e) {
+                    SendMessage message = new SendMessage();
+                    message.setChatId(chatId.toString());
+                    message.setText("Невірна посада. Будь ласка, оберіть одну з кнопок або введіть: МЕХАНІК, ЕЛЕКТРИК, МЕНЕДЖЕР.");
+                    message.setReplyMarkup(createRoleKeyboard());
+                    telegramSender.execute(message);
+                }
+                break;
+            case AWAITING_BRANCH:
+                userSession.setBranch(messageText.trim());
+                userSession.setState(UserState.READY_FOR_FEEDBACK);
+                userSessionCache.save(userSession);
+
+                SendMessage message = new SendMessage();
+                message.setChatId(chatId.toString());
+                message.setText("Дякуємо! Ваша посада " + userSession.getRole().name() + " та ваша філія " + userSession.getBranch() + ".\n" +
+                        "Тепер ви можете надсилати свій анонімний відгук у будь-який час. Напишіть ваше повідомлення:");
+                telegramSender.execute(message);
+                break;
+            case READY_FOR_FEEDBACK:
+                if (userSession.getRole() == null || userSession.getBranch() == null) {
+                    message = new SendMessage();
+                    message.setChatId(chatId.toString());
+                    message.setText("Помилка сесії. Будь ласка, надішліть /start, щоб розпочати заново.");
+                    telegramSender.execute(message);
+                    userSession.setState(UserState.START);
+                    userSessionCache.save(userSession);
+                    return;
+                }
+
+                // persisted before the acknowledgement, so the user is never thanked for a feedback that was lost
+                AnalysisJob job = createPendingTimer.record(() -> feedbackTracer.inSpan("db.create-pending",
+                        () -> feedbackPersistenceService.createPending(
+                                chatId, userSession.getRole(), userSession.getBranch(), messageText)));
+
+                SendMessage thankYouMessage = new SendMessage();
+                thankYouMessage.setChatId(chatId.toString());
+                thankYouMessage.setText("Дякуємо за ваш відгук. Його збережено, аналізуємо повідомлення...");
+                feedbackTracer.inSpan("telegram.send-ack", () -> telegramSender.execute(thankYouMessage));
+
+                if (!analysisJobWorker.dispatchNow(job)) {
+                    delayedAnalyses.increment();
+                    SendMessage delayedMessage = new SendMessage();
+                    delayedMessage.setChatId(chatId.toString());
+                    delayedMessage.setText("Зараз надходить забагато відгуків. Ваш відгук збережено, результат аналізу надійде трохи пізніше.");
+                    telegramSender.execute(delayedMessage);
+                }
+                break;
+            case START:
+            default:
+                message = new SendMessage();
+                message.setChatId(chatId.toString());
+                message.setText("Будь ла ласка, надішліть /start, щоб розпочати, або відправте ваш відгук.");
+                telegramSender.execute(message);
+                break;
+        }
+    }
+
+    private ReplyKeyboardMarkup createRoleKeyboard() {
+        ReplyKeyboardMarkup keyboardMarkup = new ReplyKeyboardMarkup();
+        keyboardMarkup.setSelective(true);
+        keyboardMarkup.setResizeKeyboard(true);
+        keyboardMarkup.setOneTimeKeyboard(false);
+
+        List<KeyboardRow> keyboard = new ArrayList<>();
+        KeyboardRow row = new KeyboardRow();
+        for (EmployeeRole role : EmployeeRole.values()) {
+            row.add(role.name());
+        }
+        keyboard.add(row);
+        keyboardMarkup.setKeyboard(keyboard);
+        return keyboardMarkup;
+    }
+}
@@ -0,0 +1,241 @@
+package com.shiningpr1sm.feedbackbot.bot;
+
+import com.shiningpr1sm.feedbackbot.model.UserSession;
+import com.shiningpr1sm.feedbackbot.model.UserState;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Flood control in front of the handler, checked before the session lookup and any DB, OpenAI or Sheets work:
+ * a token bucket per chat and one shared by all chats of this node. The buckets are kept in GCRA form
+ * (the time at which the bucket would be full again), so a message costs no allocation once its chat is known
+ * and the global bucket is a single compare-and-set.
+ *
+ * A rejected chat is told once per episode; further messages are dropped silently. A chat that keeps hitting
+ * its limit is blocked for block-minutes: its session goes to UserState.BLOCKED, so the block survives a restart
+ * or the chat moving to another node. In cluster mode a chat's bucket lives on the node owning the chat.
+ */
+@Component
+public class FloodControl {
+
+    public enum Verdict {
+        ALLOWED,
+        // over the chat's limit; the chat is told to slow down
+        THROTTLED,
+        // over the node-wide limit; the chat is told to retry later
+        BUSY,
+        // the chat has just been blocked
+        BLOCKED,
+        // rejected again (or still blocked); the chat was already told
+        DROPPED
+    }
+
+    private final boolean enabled;
+    private final long chatInterval;
+    private final long chatTolerance;
+    private final long globalInterval;
+    private final long globalTolerance;
+    private final int blockAfter;
+    private final long blockWindow;
+    private final Duration blockDuration;
+
+    private final ConcurrentHashMap<Long, ChatBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong globalArrival = new AtomicLong(System.nanoTime());
+    private final Map<Verdict, AtomicLong> verdictCounts = new EnumMap<>(Verdict.class);
+
+    public FloodControl(@Value("${bot.flood.enabled:true}") boolean enabled,
+                        @Value("${bot.flood.chat.messages-per-minute:20}") int chatPerMinute,
+                        @Value("${bot.flood.chat.burst:5}") int chatBurst,
+                        @Value("${bot.flood.global.messages-per-second:50}") int globalPerSecond,
+                        @Value("${bot.flood.global.burst:200}") int globalBurst,
+                        @Value("${bot.flood.block-after:30}") int blockAfter,
+                        @Value("${bot.flood.block-window-seconds:300}") long blockWindowSeconds,
+                        @Value("${bot.flood.block-minutes:60}") long blockMinutes,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.chatInterval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, chatPerMinute);
+        this.chatTolerance = chatInterval * (Math.max(1, chatBurst) - 1);
+        this.globalInterval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, globalPerSecond);
+        this.globalTolerance = globalInterval * (Math.max(1, globalBurst) - 1);
+        this.blockAfter = blockAfter;
+        this.blockWindow = TimeUnit.SECONDS.toNanos(blockWindowSeconds);
+        this.blockDuration = Duration.ofMinutes(blockMinutes);
+        for (Verdict verdict : Verdict.values()) {
+            AtomicLong count = new AtomicLong();
+            verdictCounts.put(verdict, count);
+            FunctionCounter.builder("feedbackbot.flood.messages", count, AtomicLong::get)
+                    .description("Incoming messages by flood control verdict")
+                    .tag("outcome", verdict.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("feedbackbot.flood.tracked-chats", buckets, Map::size)
+                .description("Chats with a flood control bucket, dropped by the sweep once idle")
+                .register(meterRegistry);
+    }
+
+    public Verdict check(long chatId) {
+        if (!enabled) {
+            return Verdict.ALLOWED;
+        }
+        long now = System.nanoTime();
+        ChatBucket bucket = buckets.get(chatId);
+        if (bucket == null) {
+            bucket = new ChatBucket(now);
+            ChatBucket raced = buckets.putIfAbsent(chatId, bucket);
+            if (raced != null) {
+                bucket = raced;
+            }
+        }
+        Verdict verdict;
+        synchronized (bucket) {
+            verdict = bucket.check(now);
+        }
+        verdictCounts.get(verdict).incrementAndGet();
+        return verdict;
+    }
+
+    /*
+     * For a session stored as BLOCKED: true while the block lasts (measured from the session's last update),
+     * and the block is re-armed here so the following messages are dropped before the session lookup.
+     * A session whose block has expired is put back to where the user can continue.
+     */
+    public boolean isStillBlocked(UserSession session) {
+        if (session.getState() != UserState.BLOCKED) {
+            return false;
+        }
+        LocalDateTime blockedAt = session.getUpdatedAt() != null ? session.getUpdatedAt() : LocalDateTime.now();
+        Duration remaining = Duration.between(LocalDateTime.now(), blockedAt.plus(blockDuration));
+        if (enabled && remaining.isPositive()) {
+            long until = System.nanoTime() + remaining.toNanos();
+            ChatBucket bucket = buckets.computeIfAbsent(session.getChatId(), id -> new ChatBucket(System.nanoTime()));
+            synchronized (bucket) {
+                bucket.blockedUntil = until;
+                bucket.notified = true;
+            }
+            return true;
+        }
+        session.setState(session.getRole() != null && session.getBranch() != null
+                ? UserState.READY_FOR_FEEDBACK
+                : UserState.START);
+        return false;
+    }
+
+    /*
+     * Marks the session BLOCKED; the block is timed from updatedAt.
+     */
+    public void block(UserSession session) {
+        session.setState(UserState.BLOCKED);
+        session.setUpdatedAt(LocalDateTime.now());
+    }
+
+    /*
+     * Forgets chats whose bucket is full again and that are neither blocked nor collecting strikes.
+     * A message racing with the removal may be counted against a fresh bucket, which only errs on the lenient side.
+     */
+    @Scheduled(fixedDelayString = "${bot.flood.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> {
+            synchronized (bucket) {
+                return bucket.isIdle(now);
+            }
+        });
+    }
+
+    public int getTrackedChats() {
+        return buckets.size();
+    }
+
+    public Map<String, Long> getVerdictCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        verdictCounts.forEach((verdict, count) -> counts.put(verdict.name().toLowerCase(), count.get()));
+        return counts;
+    }
+
+    /*
+     * Takes one slot of the node-wide budget (lock-free).
+     */
+    private boolean tryAcquireGlobal(long now) {
+        while (true) {
+            long current = globalArrival.get();
+            long arrival = current - now > 0 ? current : now;
+            if (arrival - now > globalTolerance) {
+                return false;
+            }
+            if (globalArrival.compareAndSet(current, arrival + globalInterval)) {
+                return true;
+            }
+        }
+    }
+
+    /*
+     * GCRA state of one chat; all fields are System.nanoTime() values except the counters. Guarded by itself.
+     */
+    private final class ChatBucket {
+        // when the bucket is full again; a message conforms while this is at most chatTolerance ahead of now
+        private long theoreticalArrival;
+        private long blockedUntil;
+        private long strikeWindowStart;
+        private int strikes;
+        private boolean notified;
+
+        private ChatBucket(long now) {
+            this.theoreticalArrival = now;
+            this.blockedUntil = now;
+            this.strikeWindowStart = now;
+        }
+
+        private Verdict check(long now) {
+            if (blockedUntil - now > 0) {
+                return Verdict.DROPPED;
+            }
+            long arrival = theoreticalArrival - now > 0 ? theoreticalArrival : now;
+            if (arrival - now <= chatTolerance) {
+                if (!tryAcquireGlobal(now)) {
+                    return reject(Verdict.BUSY);
+                }
+                theoreticalArrival = arrival + chatInterval;
+                notified = false;
+                return Verdict.ALLOWED;
+            }
+            if (now - strikeWindowStart > blockWindow) {
+                strikeWindowStart = now;
+                strikes = 0;
+            }
+            if (blockAfter > 0 && ++strikes >= blockAfter) {
+                blockedUntil = now + blockDuration.toNanos();
+                strikes = 0;
+                notified = true;
+                return Verdict.BLOCKED;
+            }
+            return reject(Verdict.THROTTLED);
+        }
+
+        private Verdict reject(Verdict verdict) {
+            if (notified) {
+                return Verdict.DROPPED;
+            }
+            notified = true;
+            return verdict;
+        }
+
+        private boolean isIdle(long now) {
+            return theoreticalArrival - now <= 0
+                    && blockedUntil - now <= 0
+                    && (strikes == 0 || now - strikeWindowStart > blockWindow);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.shiningpr1sm.feedbackbot.bot;
+
+import com.shiningpr1sm.feedbackbot.service.FeedbackTracer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Shards updates by chatId onto single-threaded stripes: updates of one chat are handled strictly
+ * in arrival order (AWAITING_ROLE -> AWAITING_BRANCH -> READY_FOR_FEEDBACK), different chats in parallel.
+ * Each stripe is a bounded queue drained by its own virtual thread; a full stripe pushes back on the transport
+ * instead of growing. After shutdown the stripes refuse new updates and finish the queued ones.
+ */
+@Component
+public class UpdateDispatcher {
+
+    private final FeedbackUpdateHandler updateHandler;
+    private final FeedbackTracer feedbackTracer;
+    private final Stripe[] stripes;
+    private final long offerTimeoutMs;
+    private final AtomicLong rejectedUpdates = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+    private final Timer queueWaitTimer;
+
+    public UpdateDispatcher(FeedbackUpdateHandler updateHandler,
+                            @Value("${telegram.bot.dispatcher.stripes:0}") int stripeCount,
+                            @Value("${telegram.bot.dispatcher.stripe-capacity:256}") int stripeCapacity,
+                            @Value("${telegram.bot.dispatcher.offer-timeout-ms:2000}") long offerTimeoutMs,
+                            FeedbackTracer feedbackTracer,
+                            MeterRegistry meterRegistry) {
+        this.updateHandler = updateHandler;
+        this.feedbackTracer = feedbackTracer;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.meterRegistry = meterRegistry;
+        this.queueWaitTimer = Timer.builder("feedbackbot.update.queue.wait")
+                .description("Time an update waits in its stripe queue")
+                .register(meterRegistry);
+
+        int count = stripeCount > 0 ? stripeCount : Runtime.getRuntime().availableProcessors() * 2;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe("update-stripe-" + i, stripeCapacity);
+        }
+        Gauge.builder("feedbackbot.update.queue.depth", this, UpdateDispatcher::totalQueueDepth)
+                .description("Updates waiting in all stripe queues")
+                .register(meterRegistry);
+        Gauge.builder("feedbackbot.update.queue.fullest", this, UpdateDispatcher::maxQueueDepth)
+                .description("Depth of the fullest stripe queue")
+                .register(meterRegistry);
+        FunctionCounter.builder("feedbackbot.update.rejected", rejectedUpdates, AtomicLong::get)
+                .description("Webhook updates refused because their stripe stayed full")
+                .register(meterRegistry);
+    }
+
+    /*
+     * Blocks the caller while the stripe is full. Used by long polling, where blocking simply
+     * delays the next getUpdates call and no update is lost.
+     */
+    public void submit(Update update) throws InterruptedException {
+        if (!stripeFor(update).put(task(update))) {
+            throw new RejectedExecutionException("Update dispatcher is shut down");
+        }
+    }
+
+    /*
+     * Waits at most offer-timeout-ms for room in the stripe. Returns false when the stripe stays full,
+     * so the webhook can answer with an error and let Telegram redeliver the update later.
+     */
+    public boolean trySubmit(Update update) throws InterruptedException {
+        boolean accepted = stripeFor(update).offer(task(update), offerTimeoutMs);
+        if (!accepted) {
+            rejectedUpdates.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    public int[] getQueueDepths() {
+        int[] depths = new int[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            depths[i] = stripes[i].queue.size();
+        }
+        return depths;
+    }
+
+    private int totalQueueDepth() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.queue.size();
+        }
+        return total;
+    }
+
+    private int maxQueueDepth() {
+        int max = 0;
+        for (Stripe stripe : stripes) {
+            max = Math.max(max, stripe.queue.size());
+        }
+        return max;
+    }
+
+    public long getRejectedUpdates() {
+        return rejectedUpdates.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Stripe stripe : stripes) {
+            stripe.closed = true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Stripe stripe : stripes) {
+            stripe.consumer.join(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())));
+        }
+    }
+
+    private Stripe stripeFor(Update update) {
+        long key = update.hasMessage() ? update.getMessage().getChatId() : update.getUpdateId();
+        return stripes[Math.floorMod(Long.hashCode(key), stripes.length)];
+    }
+
+    private Runnable task(Update update) {
+        long queuedAt = System.nanoTime();
+        return () -> {
+            queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "success";
+            try {
+                // root span of the trace that follows a feedback through analysis and export
+                feedbackTracer.inSpan("telegram.update", () -> {
+                    updateHandler.handleUpdate(update);
+                    return null;
+                });
+            } catch (Exception e) {
+                outcome = "error";
+                System.err.println("Error handling update " + update.getUpdateId() + ": " + e.getMessage());
+            } finally {
+                sample.stop(meterRegistry.timer("feedbackbot.update.handle", "outcome", outcome));
+            }
+        };
+    }
+
+    /*
+     * One chat shard: its consumer runs the queued tasks in order until the stripe is closed and drained.
+     */
+    private static final class Stripe {
+        private final BlockingQueue<Runnable> queue;
+        private final Thread consumer;
+        private volatile boolean closed;
+
+        private Stripe(String name, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.consumer = Thread.ofVirtual().name(name).start(this::run);
+        }
+
+        private boolean put(Runnable task) throws InterruptedException {
+            if (closed) {
+                return false;
+            }
+            queue.put(task);
+            return accepted(task);
+        }
+
+        private boolean offer(Runnable task, long timeoutMs) throws InterruptedException {
+            if (closed || !queue.offer(task, timeoutMs, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            return accepted(task);
+        }
+
+        // a task that raced with shutdown is taken back unless the consumer already has it
+        private boolean accepted(Runnable task) {
+            return !closed || !queue.remove(task);
+        }
+
+        private void run() {
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    Runnable task = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (task != null) {
+                        task.run();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.shiningpr1sm.feedbackbot.config;
+
+import com.shiningpr1sm.feedbackbot.service.AnalysisCache;
+import com.shiningpr1sm.feedbackbot.service.AnalysisExecutor;
+import com.shiningpr1sm.feedbackbot.service.AnalysisJobWorker;
+import com.shiningpr1sm.feedbackbot.service.FeedbackLiveHub;
+import com.shiningpr1sm.feedbackbot.service.OpenAICircuitBreaker;
+import com.shiningpr1sm.feedbackbot.service.OpenAIRateLimiter;
+import com.shiningpr1sm.feedbackbot.service.SheetsOutboxRelay;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+ * Gauges over state the components already track for /admin/api/ops, so the same numbers can be scraped
+ * from /actuator/prometheus. Timers and counters of the pipeline stages are registered by the components.
+ * The job and outbox backlogs are COUNT queries, run on every scrape.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder analysisMetrics(AnalysisExecutor analysisExecutor,
+                                       AnalysisJobWorker analysisJobWorker,
+                                       AnalysisCache analysisCache) {
+        return registry -> {
+            Gauge.builder("feedbackbot.analysis.executor.active", analysisExecutor, AnalysisExecutor::getActiveCount)
+                    .description("Analysis tasks running")
+                    .register(registry);
+            Gauge.builder("feedbackbot.analysis.executor.queued", analysisExecutor, AnalysisExecutor::getQueuedCount)
+                    .description("Analysis tasks waiting for a slot")
+                    .register(registry);
+            FunctionCounter.builder("feedbackbot.analysis.executor.rejected", analysisExecutor, AnalysisExecutor::getRejectedCount)
+                    .description("Analysis tasks refused because the executor queue was full")
+                    .register(registry);
+            Gauge.builder("feedbackbot.analysis.jobs.backlog", analysisJobWorker, AnalysisJobWorker::getBacklogSize)
+                    .description("Rows in analysis_jobs")
+                    .register(registry);
+            Gauge.builder("feedbackbot.analysis.jobs.oldest.age", analysisJobWorker,
+                            worker -> worker.getOldestJobAge().toMillis() / 1000.0)
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("feedbackbot.analysis.cache.size", analysisCache, AnalysisCache::size).register(registry);
+            FunctionCounter.builder("feedbackbot.analysis.cache.lookups", analysisCache, AnalysisCache::getMemoryHits)
+                    .tag("result", "memory_hit")
+                    .register(registry);
+            FunctionCounter.builder("feedbackbot.analysis.cache.lookups", analysisCache, AnalysisCache::getDbHits)
+                    .tag("result", "db_hit")
+                    .register(registry);
+            FunctionCounter.builder("feedbackbot.analysis.cache.lookups", analysisCache, AnalysisCache::getMisses)
+                    .tag("result", "miss")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder openAIMetrics(OpenAIRateLimiter openAIRateLimiter, OpenAICircuitBreaker openAICircuitBreaker) {
+        return registry -> {
+            Gauge.builder("feedbackbot.openai.limiter.tokens", openAIRateLimiter, OpenAIRateLimiter::getAvailableTokens)
+                    .description("Requests the client-side bucket would admit right now")
+                    .register(registry);
+            Gauge.builder("feedbackbot.openai.limiter.paused", openAIRateLimiter, limiter -> limiter.getPausedForMillis() / 1000.0)
+                    .description("Remaining Retry-After pause")
+                    .baseUnit("seconds")
+                    .register(registry);
+            FunctionCounter.builder("feedbackbot.openai.limiter.shed", openAIRateLimiter, OpenAIRateLimiter::getShedRequests)
+                    .register(registry);
+            for (OpenAICircuitBreaker.State state : OpenAICircuitBreaker.State.values()) {
+                // one series per state, 1 for the current one
+                Gauge.builder("feedbackbot.openai.breaker.state", openAICircuitBreaker,
+                                breaker -> breaker.getState() == state ? 1 : 0)
+                        .tag("state", state.name().toLowerCase())
+                        .register(registry);
+            }
+            FunctionCounter.builder("feedbackbot.openai.breaker.rejected", openAICircuitBreaker, OpenAICircuitBreaker::getRejectedCalls)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder exportMetrics(SheetsOutboxRelay sheetsOutboxRelay, FeedbackLiveHub feedbackLiveHub) {
+        return registry -> {
+            Gauge.builder("feedbackbot.sheets.outbox.backlog", sheetsOutboxRelay, SheetsOutboxRelay::getBacklogSize)
+                    .description("Rows in sheets_outbox")
+                    .register(registry);
+            Gauge.builder("feedbackbot.sheets.outbox.oldest.age", sheetsOutboxRelay,
+                            relay -> relay.getOldestPendingAge().toMillis() / 1000.0)
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("feedbackbot.live.subscribers", feedbackLiveHub, FeedbackLiveHub::getSubscriberCount)
+                    .register(registry);
+            FunctionCounter.builder("feedbackbot.live.dropped-subscribers", feedbackLiveHub, FeedbackLiveHub::getDroppedSubscribers)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.shiningpr1sm.feedbackbot.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackFilter;
+import lombok.SneakyThrows;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Repeatable check that the admin filter shapes and the session lookup are served by indexes.
+ *
+ * Each shape is EXPLAINed against the live database with the planner's normal settings and must use the index
+ * built for it: every shape ends in the keyset ORDER BY, which a backward scan of idx_feedbacks_submitted_at_id
+ * can always answer, so "uses some index" would hide a missing composite or partial index. The plans depend on
+ * the table statistics; check against a database with representative data (after ANALYZE).
+ * Runs on startup when db.plan-check.enabled=true (and fails startup when fail-on-unexpected-plan is set),
+ * and on demand via GET /admin/api/ops/query-plans.
+ */
+@Component
+public class QueryPlanChecker implements ApplicationRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final String schema;
+    private final boolean enabled;
+    private final boolean failOnUnexpectedPlan;
+
+    public QueryPlanChecker(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema,
+                            @Value("${db.plan-check.enabled:false}") boolean enabled,
+                            @Value("${db.plan-check.fail-on-unexpected-plan:false}") boolean failOnUnexpectedPlan) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.schema = schema;
+        this.enabled = enabled;
+        this.failOnUnexpectedPlan = failOnUnexpectedPlan;
+    }
+
+    /*
+     * expectedIndex null = any index will do (e.g. the unique constraint's index, whose name depends on
+     * how the table was created).
+     */
+    public record PlanCheck(String shape, String expectedIndex, List<String> indexes, boolean seqScan, boolean ok) {
+    }
+
+    private record Shape(FeedbackFilter filter, String expectedIndex) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        List<PlanCheck> checks = check();
+        checks.forEach(check -> System.out.println("Query plan [" + check.shape() + "]: "
+                + (check.seqScan() ? "SEQ SCAN" : "indexes " + check.indexes())
+                + (check.ok() ? "" : ", expected " + (check.expectedIndex() != null ? check.expectedIndex() : "an index"))));
+        List<String> failed = checks.stream().filter(check -> !check.ok()).map(PlanCheck::shape).toList();
+        if (!failed.isEmpty() && failOnUnexpectedPlan) {
+            throw new IllegalStateException("Query shapes not served by their index: " + failed);
+        }
+    }
+
+    public List<PlanCheck> check() {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusDays(30);
+        Map<String, Shape> shapes = new LinkedHashMap<>();
+        shapes.put("latest", new Shape(FeedbackFilter.NONE, "idx_feedbacks_submitted_at_id"));
+        shapes.put("date range", new Shape(new FeedbackFilter(null, null, null, null, from, to),
+                "idx_feedbacks_submitted_at_id"));
+        shapes.put("branch", new Shape(new FeedbackFilter("check", null, null, null, null, null),
+                "idx_feedbacks_branch_submitted_at_id"));
+        shapes.put("branch + role + date range", new Shape(
+                new FeedbackFilter("check", EmployeeRole.values()[0], null, null, from, to),
+                "idx_feedbacks_branch_role_submitted_at_id"));
+        shapes.put("role", new Shape(new FeedbackFilter(null, EmployeeRole.values()[0], null, null, null, null),
+                "idx_feedbacks_role_submitted_at_id"));
+        shapes.put("criticality", new Shape(new FeedbackFilter(null, null, 5, null, null, null),
+                "idx_feedbacks_criticality_submitted_at_id"));
+        shapes.put("sentiment + date range", new Shape(
+                new FeedbackFilter(null, null, null, FeedbackSentiment.NEGATIVE, from, to),
+                "idx_feedbacks_sentiment_submitted_at_id"));
+
+        List<PlanCheck> checks = new ArrayList<>();
+        shapes.forEach((name, shape) -> {
+            // the admin page query: filter conditions + keyset order, newest first
+            StringBuilder sql = new StringBuilder("SELECT * FROM ").append(schema).append(".feedbacks f WHERE 1 = 1");
+            List<Object> args = new ArrayList<>();
+            shape.filter().appendSqlConditions(sql, args, "f");
+            sql.append(" ORDER BY f.submitted_at DESC, f.id DESC LIMIT 51");
+            checks.add(explain(name, shape.expectedIndex(), sql.toString(), args));
+        });
+        checks.add(explain("user session by chat id", null,
+                "SELECT * FROM " + schema + ".user_sessions s WHERE s.chat_id = ?", List.of(0L)));
+        return checks;
+    }
+
+    private PlanCheck explain(String shape, String expectedIndex, String sql, List<Object> args) {
+        String plan = transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, args.toArray()));
+        List<String> indexes = new ArrayList<>();
+        boolean seqScan = walk(readPlan(plan), indexes);
+        boolean ok = !seqScan && (expectedIndex == null ? !indexes.isEmpty() : indexes.contains(expectedIndex));
+        return new PlanCheck(shape, expectedIndex, indexes, seqScan, ok);
+    }
+
+    @SneakyThrows
+    private JsonNode readPlan(String plan) {
+        return objectMapper.readTree(plan).get(0).get("Plan");
+    }
+
+    private static boolean walk(JsonNode node, List<String> indexes) {
+        boolean seqScan = "Seq Scan".equals(node.path("Node Type").asText());
+        if (node.has("Index Name")) {
+            indexes.add(node.get("Index Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            seqScan |= walk(child, indexes);
+        }
+        return seqScan;
+    }
+}
@@ -0,0 +1,127 @@
+package com.shiningpr1sm.feedbackbot.config;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Collects the ended spans of each feedback trace and, once the trace is complete (the row reached Google Sheets,
+ * or the analysis finally failed), prints the stage breakdown if the whole trace took longer than threshold-ms.
+ * Only spans ended on this instance are seen; traces that never complete are evicted beyond max-open-traces.
+ */
+@Component
+public class SlowTraceLog implements SpanProcessor {
+
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+
+    private final long thresholdMillis;
+    private final int maxOpenTraces;
+
+    // traceId -> spans ended so far, insertion-ordered, guarded by "this"
+    private final LinkedHashMap<String, List<SpanData>> openTraces;
+
+    public SlowTraceLog(@Value("${tracing.slow-log.threshold-ms:15000}") long thresholdMillis,
+                        @Value("${tracing.slow-log.max-open-traces:10000}") int maxOpenTraces) {
+        this.thresholdMillis = thresholdMillis;
+        this.maxOpenTraces = maxOpenTraces;
+        this.openTraces = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SpanData>> eldest) {
+                return size() > SlowTraceLog.this.maxOpenTraces;
+            }
+        };
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanData data = span.toSpanData();
+        List<SpanData> trace;
+        synchronized (this) {
+            trace = openTraces.computeIfAbsent(data.getTraceId(), id -> new ArrayList<>());
+            trace.add(data);
+            if (!completesTrace(data)) {
+                return;
+            }
+            openTraces.remove(data.getTraceId());
+        }
+        report(data.getTraceId(), trace);
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    private static boolean completesTrace(SpanData span) {
+        if ("sheets.append".equals(span.getName())) {
+            // a failed append is retried by the relay and continues the trace
+            return span.getStatus().getStatusCode() != StatusCode.ERROR;
+        }
+        return "feedback.analysis".equals(span.getName()) && "failed".equals(span.getAttributes().get(OUTCOME));
+    }
+
+    private void report(String traceId, List<SpanData> spans) {
+        long start = spans.stream().mapToLong(SpanData::getStartEpochNanos).min().orElse(0);
+        long end = spans.stream().mapToLong(SpanData::getEndEpochNanos).max().orElse(0);
+        long totalMillis = TimeUnit.NANOSECONDS.toMillis(end - start);
+        if (totalMillis < thresholdMillis) {
+            return;
+        }
+
+        Map<String, SpanData> byId = new HashMap<>();
+        for (SpanData span : spans) {
+            byId.put(span.getSpanId(), span);
+        }
+        List<SpanData> ordered = new ArrayList<>(spans);
+        ordered.sort(Comparator.comparingLong(SpanData::getStartEpochNanos));
+
+        StringBuilder message = new StringBuilder()
+                .append("[").append(traceId).append("] Slow feedback trace: ").append(totalMillis)
+                .append(" ms (threshold ").append(thresholdMillis).append(" ms)");
+        for (SpanData span : ordered) {
+            message.append('\n')
+                    .append(String.format("  +%7d ms %7d ms  ",
+                            TimeUnit.NANOSECONDS.toMillis(span.getStartEpochNanos() - start),
+                            TimeUnit.NANOSECONDS.toMillis(span.getEndEpochNanos() - span.getStartEpochNanos())))
+                    .append("  ".repeat(depth(span, byId)))
+                    .append(span.getName());
+            if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+                message.append(" (error)");
+            }
+        }
+        System.out.println(message);
+    }
+
+    private static int depth(SpanData span, Map<String, SpanData> byId) {
+        int depth = 0;
+        SpanData parent = byId.get(span.getParentSpanId());
+        while (parent != null && depth < 32) {
+            depth++;
+            parent = byId.get(parent.getParentSpanId());
+        }
+        return depth;
+    }
+}
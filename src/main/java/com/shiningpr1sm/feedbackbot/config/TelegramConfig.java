@@ -0,0 +1,32 @@
+package com.shiningpr1sm.feedbackbot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.telegram.telegrambots.bots.DefaultAbsSender;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+
+@Configuration
+public class TelegramConfig {
+
+    /*
+     * telegram.bot.api-url points the bot at another Bot API server (a local Bot API server or the load-test stand-in).
+     */
+    @Bean
+    public DefaultBotOptions telegramBotOptions(@Value("${telegram.bot.api-url:https://api.telegram.org/bot}") String apiUrl) {
+        DefaultBotOptions options = new DefaultBotOptions();
+        options.setBaseUrl(apiUrl);
+        return options;
+    }
+
+    /*
+     * Outgoing Bot API client shared by both transports, so the handler does not depend on
+     * whether updates arrive through long polling or through the webhook.
+     */
+    @Bean
+    public AbsSender telegramSender(DefaultBotOptions telegramBotOptions, @Value("${telegram.bot.token}") String botToken) {
+        return new DefaultAbsSender(telegramBotOptions, botToken) {
+        };
+    }
+}
@@ -0,0 +1,21 @@
+package com.shiningpr1sm.feedbackbot.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    /*
+     * Writes finished spans as OTLP JSON lines through the io.opentelemetry.exporter.logging.otlp logger,
+     * one ExportTraceServiceRequest per line, so they can be collected from the log without a tracing backend.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tracing.export.logging.enabled", havingValue = "true")
+    public SpanExporter otlpJsonLoggingSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
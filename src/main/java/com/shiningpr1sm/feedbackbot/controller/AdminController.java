@@ -1,29 +1,60 @@
 package com.shiningpr1sm.feedbackbot.controller;
 
-import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
-import com.shiningpr1sm.feedbackbot.model.Feedback;
-import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
-import com.shiningpr1sm.feedbackbot.repository.FeedbackRepository;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackCursor;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackFilter;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackPage;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackQueryRepository;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackSearchRepository;
+import com.shiningpr1sm.feedbackbot.service.AdminResponseCache;
+import com.shiningpr1sm.feedbackbot.service.FeedbackVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 /*
  * rest controller
+ * Responses are cached by normalized parameters and carry ETag/Last-Modified from FeedbackVersion,
+ * so a revalidating browser gets 304 without a database query.
  */
 @RestController
 @RequestMapping("/admin/api/feedbacks") // base path
 public class AdminController {
 
-    private final FeedbackRepository feedbackRepository;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_LIST_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
 
-    public AdminController(FeedbackRepository feedbackRepository) {
-        this.feedbackRepository = feedbackRepository;
+    private final FeedbackQueryRepository feedbackQueryRepository;
+    private final FeedbackSearchRepository feedbackSearchRepository;
+    private final AdminResponseCache adminResponseCache;
+    private final FeedbackVersion feedbackVersion;
+
+    public AdminController(FeedbackQueryRepository feedbackQueryRepository,
+                           FeedbackSearchRepository feedbackSearchRepository,
+                           AdminResponseCache adminResponseCache,
+                           FeedbackVersion feedbackVersion) {
+        this.feedbackQueryRepository = feedbackQueryRepository;
+        this.feedbackSearchRepository = feedbackSearchRepository;
+        this.adminResponseCache = adminResponseCache;
+        this.feedbackVersion = feedbackVersion;
     }
 
     /*
@@ -32,74 +63,141 @@ public class AdminController {
      * - role: Filter by employee role ("МЕХАНІК", "ЕЛЕКТРИК", "МЕНЕДЖЕР").
      * - criticality: Filter by criticality level (1-5).
      * - sentiment: Filter by sentiment (Нейтральний, Позитивний, Негативний).
+     * - from, to: Filter by submission time (ISO date-time, "to" exclusive).
+     * Any combination of filters is applied; newest feedback first, at most 1000 rows.
+     * When more rows match, the response carries "X-Truncated: true" and a Link (rel="next")
+     * to /page with the same filters, positioned after the last returned row.
      */
     @GetMapping
-    public ResponseEntity<List<Feedback>> getFilteredFeedback(
+    public ResponseEntity<byte[]> getFilteredFeedback(
             @RequestParam(required = false) String branch,
             @RequestParam(required = false) String role,
             @RequestParam(required = false) Integer criticality,
-            @RequestParam(required = false) String sentiment
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            WebRequest webRequest
     ) {
-        List<Feedback> feedbacks;
+        FeedbackFilter filter;
+        try {
+            filter = FeedbackFilter.of(branch, role, criticality, sentiment, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        if (Objects.nonNull(branch) && Objects.nonNull(role) && Objects.nonNull(criticality) && Objects.nonNull(sentiment)) {
-            try {
-                EmployeeRole employeeRole = EmployeeRole.valueOf(role.toUpperCase());
-                FeedbackSentiment feedbackSentiment = FeedbackSentiment.valueOf(sentiment.toUpperCase());
-                feedbacks = feedbackRepository.findByBranchAndEmployeeRoleAndCriticalityLevelAndSentiment(
-                        branch, employeeRole, criticality, feedbackSentiment);
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().build();
-            }
-        } else if (Objects.nonNull(branch) && Objects.nonNull(role) && Objects.nonNull(criticality)) {
-            try {
-                EmployeeRole employeeRole = EmployeeRole.valueOf(role.toUpperCase());
-                feedbacks = feedbackRepository.findByBranchAndEmployeeRoleAndCriticalityLevel(
-                        branch, employeeRole, criticality);
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().build();
-            }
-        } else if (Objects.nonNull(branch) && Objects.nonNull(role)) {
-            try {
-                EmployeeRole employeeRole = EmployeeRole.valueOf(role.toUpperCase());
-                feedbacks = feedbackRepository.findByBranchAndEmployeeRole(branch, employeeRole);
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().build();
-            }
-        } else if (Objects.nonNull(branch) && Objects.nonNull(criticality)) {
-            feedbacks = feedbackRepository.findByBranchAndCriticalityLevel(branch, criticality);
-        } else if (Objects.nonNull(role) && Objects.nonNull(criticality)) {
-            try {
-                EmployeeRole employeeRole = EmployeeRole.valueOf(role.toUpperCase());
-                feedbacks = feedbackRepository.findByEmployeeRoleAndCriticalityLevel(employeeRole, criticality);
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().build();
+        return cachedResponse(webRequest, "list|" + filter, () -> {
+            FeedbackPage page = feedbackQueryRepository.findPage(filter, null, false, MAX_LIST_SIZE);
+            if (page.items().isEmpty()) {
+                return null;
             }
-        } else if (Objects.nonNull(branch)) {
-            feedbacks = feedbackRepository.findByBranch(branch);
-        } else if (Objects.nonNull(role)) {
-            try {
-                EmployeeRole employeeRole = EmployeeRole.valueOf(role.toUpperCase());
-                feedbacks = feedbackRepository.findByEmployeeRole(employeeRole);
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().build();
-            }
-        } else if (Objects.nonNull(criticality)) {
-            feedbacks = feedbackRepository.findByCriticalityLevel(criticality);
-        } else if (Objects.nonNull(sentiment)) {
-            try {
-                FeedbackSentiment feedbackSentiment = FeedbackSentiment.valueOf(sentiment.toUpperCase());
-                feedbacks = feedbackRepository.findBySentiment(feedbackSentiment);
-            } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest().build();
-            }
-        } else {
-            feedbacks = feedbackRepository.findAll();
+            return page.nextCursor() != null
+                    ? new AdminResponseCache.Truncated(page.items(), page.nextCursor())
+                    : page.items();
+        });
+    }
+
+    /*
+     * Same filters as above, paginated by keyset on (submittedAt, id).
+     * - cursor: nextCursor of the previous page; omit for the first page.
+     * - limit: page size (default 50, at most 500).
+     * - order: "desc" (newest first, default) or "asc".
+     */
+    @GetMapping("/page")
+    public ResponseEntity<byte[]> getFeedbackPage(
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Integer criticality,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "desc") String order,
+            WebRequest webRequest
+    ) {
+        FeedbackFilter filter;
+        FeedbackCursor after;
+        try {
+            filter = FeedbackFilter.of(branch, role, criticality, sentiment, from, to);
+            after = Objects.nonNull(cursor) ? FeedbackCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Objects.nonNull(limit) ? Math.max(1, Math.min(limit, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+
+        boolean ascending = "asc".equalsIgnoreCase(order);
+
+        String key = "page|" + filter + "|" + after + "|" + pageSize + "|" + ascending;
+        return cachedResponse(webRequest, key, () -> feedbackQueryRepository.findPage(filter, after, ascending, pageSize));
+    }
+
+    /*
+     * Full-text search in message and resolution suggestion, best matches first.
+     * - q: search words; all must match (as word prefixes).
+     * - the filters of GET /admin/api/feedbacks.
+     * - page: 0-based page number; size: page size (default 20, at most 100).
+     */
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> searchFeedback(
+            @RequestParam String q,
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Integer criticality,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest
+    ) {
+        if (page < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Objects.nonNull(size) ? Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE)) : DEFAULT_SEARCH_PAGE_SIZE;
+        try {
+            FeedbackFilter filter = FeedbackFilter.of(branch, role, criticality, sentiment, from, to);
+            String key = "search|" + q.trim().toLowerCase(Locale.ROOT) + "|" + filter + "|" + page + "|" + pageSize;
+            return cachedResponse(webRequest, key, () -> feedbackSearchRepository.search(q, filter, page, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /*
+     * 304 when the client's ETag / Last-Modified is still current; otherwise the cached or freshly
+     * serialized body (204 for an empty result).
+     */
+    private ResponseEntity<byte[]> cachedResponse(WebRequest webRequest, String key, Supplier<Object> loader) {
+        long version = feedbackVersion.current();
+        long lastModified = feedbackVersion.getLastModifiedMillis();
+        String eTag = "\"v" + version + "-" + adminResponseCache.currentWindow() + "\"";
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .lastModified(lastModified)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
         }
 
-        if (feedbacks.isEmpty()) {
-            return ResponseEntity.noContent().build();
+        AdminResponseCache.CachedResponse response = adminResponseCache.get(key, version, loader);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.body() != null ? HttpStatus.OK : HttpStatus.NO_CONTENT)
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        if (response.body() == null) {
+            return builder.build();
+        }
+        if (response.nextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromRequest(webRequest.getNativeRequest(HttpServletRequest.class))
+                    .path("/page")
+                    .replaceQueryParam("cursor", response.nextCursor())
+                    .toUriString();
+            builder.header("X-Truncated", "true")
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
         }
-        return ResponseEntity.ok(feedbacks);
+        return builder.contentType(MediaType.APPLICATION_JSON).body(response.body());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package com.shiningpr1sm.feedbackbot.controller;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackRollupRepository;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackRollupRepository.Dimension;
+import com.shiningpr1sm.feedbackbot.repository.RollupBucket;
+import com.shiningpr1sm.feedbackbot.service.FeedbackColumnStore;
+import com.shiningpr1sm.feedbackbot.service.FeedbackRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/*
+ * Dashboard analytics served from the pre-aggregated rollups and the in-memory column store.
+ */
+@RestController
+@RequestMapping("/admin/api/analytics")
+public class AnalyticsController {
+
+    private final FeedbackRollupRepository feedbackRollupRepository;
+    private final FeedbackRollupService feedbackRollupService;
+    private final FeedbackColumnStore feedbackColumnStore;
+
+    public AnalyticsController(FeedbackRollupRepository feedbackRollupRepository,
+                               FeedbackRollupService feedbackRollupService,
+                               FeedbackColumnStore feedbackColumnStore) {
+        this.feedbackRollupRepository = feedbackRollupRepository;
+        this.feedbackRollupService = feedbackRollupService;
+        this.feedbackColumnStore = feedbackColumnStore;
+    }
+
+    /*
+     * Counts and average criticality of analyzed feedbacks.
+     * Parameters:
+     * - from, to: day range (ISO date, "to" exclusive).
+     * - branch, role, sentiment: filters.
+     * - groupBy: comma-separated subset of day, branch, role, sentiment (default: all four).
+     */
+    @GetMapping("/rollups")
+    public ResponseEntity<List<RollupBucket>> getRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(defaultValue = "day,branch,role,sentiment") List<String> groupBy
+    ) {
+        EmployeeRole employeeRole;
+        FeedbackSentiment feedbackSentiment;
+        List<Dimension> dimensions = new ArrayList<>();
+        try {
+            employeeRole = Objects.nonNull(role) ? EmployeeRole.valueOf(role.toUpperCase()) : null;
+            feedbackSentiment = Objects.nonNull(sentiment) ? FeedbackSentiment.valueOf(sentiment.toUpperCase()) : null;
+            for (String dimension : groupBy) {
+                Dimension parsed = Dimension.valueOf(dimension.trim().toUpperCase());
+                if (!dimensions.contains(parsed)) {
+                    dimensions.add(parsed);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(feedbackRollupRepository.query(from, to, branch, employeeRole, feedbackSentiment, dimensions));
+    }
+
+    /*
+     * Recomputes the rollups from the feedbacks table.
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        return ResponseEntity.ok(feedbackRollupService.rebuild());
+    }
+
+    /*
+     * Interactive slicing of analyzed feedbacks from memory, at second granularity.
+     * Parameters:
+     * - branch, role, sentiment, criticality: filters.
+     * - from, to: submission time range (ISO date-time, "to" exclusive).
+     * - groupBy: comma-separated subset of role, sentiment, criticality, branch, day (may be empty).
+     * Answers 503 while the store is still loading.
+     */
+    @GetMapping("/slice")
+    public ResponseEntity<List<FeedbackColumnStore.Group>> getSlice(
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) Integer criticality,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "") List<String> groupBy
+    ) {
+        if (!feedbackColumnStore.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (criticality != null && (criticality < 1 || criticality > 5)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<FeedbackColumnStore.Dimension> dimensions = new ArrayList<>();
+            for (String dimension : groupBy) {
+                if (dimension.isBlank()) {
+                    continue;
+                }
+                FeedbackColumnStore.Dimension parsed = FeedbackColumnStore.Dimension.valueOf(dimension.trim().toUpperCase());
+                if (!dimensions.contains(parsed)) {
+                    dimensions.add(parsed);
+                }
+            }
+            return ResponseEntity.ok(feedbackColumnStore.query(
+                    branch,
+                    Objects.nonNull(role) ? EmployeeRole.valueOf(role.toUpperCase()) : null,
+                    Objects.nonNull(sentiment) ? FeedbackSentiment.valueOf(sentiment.toUpperCase()) : null,
+                    criticality,
+                    from,
+                    to,
+                    dimensions));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.shiningpr1sm.feedbackbot.controller;
+
+import com.shiningpr1sm.feedbackbot.bot.UpdateDispatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * Receives updates forwarded by the ingesting node (see ClusterUpdateRouter), enabled with cluster.enabled=true.
+ * A forwarded update is always handled here, even if this node's view of the topology already differs,
+ * so an update never bounces between nodes while they disagree.
+ *
+ * The sender retries until it gets a 200, also after a timeout that may have hidden a success, so the update_ids
+ * accepted recently are remembered and a repeated one is acknowledged without being handled twice.
+ */
+@RestController
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterController {
+
+    private final UpdateDispatcher updateDispatcher;
+    private final byte[] secret;
+    // update_id -> present; insertion order, the oldest id is dropped beyond dedupe-window. Guarded by itself.
+    private final Map<Integer, Boolean> acceptedUpdateIds;
+
+    public ClusterController(UpdateDispatcher updateDispatcher,
+                             @Value("${cluster.secret:}") String secret,
+                             @Value("${cluster.dedupe-window:10000}") int dedupeWindow) {
+        if (secret.isBlank()) {
+            // the endpoint feeds updates straight into the handler: never serve it unauthenticated
+            throw new IllegalStateException("cluster.enabled=true requires a non-empty cluster.secret");
+        }
+        this.updateDispatcher = updateDispatcher;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.acceptedUpdateIds = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+                return size() > dedupeWindow;
+            }
+        };
+    }
+
+    /*
+     * Same contract as the webhook: 503 when the chat's stripe stays full, and the sender retries.
+     */
+    @PostMapping("/internal/cluster/updates")
+    public ResponseEntity<Void> onForwardedUpdate(
+            @RequestHeader(name = "X-Cluster-Secret", required = false) String requestSecret,
+            @RequestBody Update update
+    ) throws InterruptedException {
+        if (requestSecret == null
+                || !MessageDigest.isEqual(secret, requestSecret.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Integer updateId = update.getUpdateId();
+        synchronized (acceptedUpdateIds) {
+            if (acceptedUpdateIds.putIfAbsent(updateId, Boolean.TRUE) != null) {
+                return ResponseEntity.ok().build();
+            }
+        }
+        if (!updateDispatcher.trySubmit(update)) {
+            synchronized (acceptedUpdateIds) {
+                acceptedUpdateIds.remove(updateId);
+            }
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+}
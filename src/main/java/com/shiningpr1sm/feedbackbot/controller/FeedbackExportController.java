@@ -0,0 +1,235 @@
+package com.shiningpr1sm.feedbackbot.controller;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackExportRepository;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackFilter;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Bulk export for analysts. Rows are streamed from the database straight into the response,
+ * so memory use stays flat however many rows are exported.
+ */
+@RestController
+@RequestMapping("/admin/api/feedbacks/export")
+public class FeedbackExportController {
+
+    private static final String CSV_HEADER = "ID,CHAT_ID,ROLE,BRANCH,MESSAGE,SENTIMENT,CRITICALITY_LEVEL,RESOLUTION_SUGGESTION,SUBMITTED_AT,ANALYSIS_STATUS";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final FeedbackExportRepository feedbackExportRepository;
+    private final ObjectMapper objectMapper;
+
+    public FeedbackExportController(FeedbackExportRepository feedbackExportRepository, ObjectMapper objectMapper) {
+        this.feedbackExportRepository = feedbackExportRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /*
+     * Parameters:
+     * - the filters of GET /admin/api/feedbacks (branch, role, criticality, sentiment, from, to).
+     * - format: "ndjson" (default) or "csv".
+     * - gzip: compress the body; defaults to whatever the client's Accept-Encoding allows.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Integer criticality,
+            @RequestParam(required = false) String sentiment,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Boolean gzip,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        FeedbackFilter filter;
+        try {
+            filter = FeedbackFilter.of(branch, role, criticality, sentiment, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean compress = gzip != null ? gzip : acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = compress ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+            if (csv) {
+                writeCsv(filter, target);
+            } else {
+                writeNdjson(filter, target);
+            }
+            target.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"feedbacks." + (csv ? "csv" : "ndjson") + (compress ? ".gz" : "") + "\"");
+        if (compress && gzip == null) {
+            // negotiated compression: the client decodes it transparently
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private void writeNdjson(FeedbackFilter filter, OutputStream target) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(target, JsonEncoding.UTF8);
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        feedbackExportRepository.streamAll(filter, rs -> {
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("id", rs.getLong("id"));
+                generator.writeNumberField("chatId", rs.getLong("chat_id"));
+                generator.writeStringField("employeeRole", rs.getString("employee_role"));
+                generator.writeStringField("branch", rs.getString("branch"));
+                generator.writeStringField("message", rs.getString("message"));
+                generator.writeStringField("sentiment", rs.getString("sentiment"));
+                generator.writeFieldName("criticalityLevel");
+                Integer criticalityLevel = (Integer) rs.getObject("criticality_level");
+                if (criticalityLevel != null) {
+                    generator.writeNumber(criticalityLevel);
+                } else {
+                    generator.writeNull();
+                }
+                generator.writeStringField("resolutionSuggestion", rs.getString("resolution_suggestion"));
+                generator.writeStringField("submittedAt", toIsoString(rs.getTimestamp("submitted_at")));
+                generator.writeStringField("analysisStatus", rs.getString("analysis_status"));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generator.flush();
+    }
+
+    private void writeCsv(FeedbackFilter filter, OutputStream target) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+        // BOM, so spreadsheet tools detect UTF-8 and show Cyrillic text correctly
+        writer.write('\uFEFF');
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        feedbackExportRepository.streamAll(filter, rs -> {
+            try {
+                writeCsvRow(writer, rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, ResultSet rs) throws IOException, SQLException {
+        writer.write(Long.toString(rs.getLong("id")));
+        writer.write(',');
+        writer.write(Long.toString(rs.getLong("chat_id")));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("employee_role"));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("branch"));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("message"));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("sentiment"));
+        writer.write(',');
+        Object criticalityLevel = rs.getObject("criticality_level");
+        writer.write(criticalityLevel != null ? criticalityLevel.toString() : "");
+        writer.write(',');
+        writeCsvField(writer, rs.getString("resolution_suggestion"));
+        writer.write(',');
+        writeCsvField(writer, toIsoString(rs.getTimestamp("submitted_at")));
+        writer.write(',');
+        writeCsvField(writer, rs.getString("analysis_status"));
+        writer.write("\r\n");
+    }
+
+    /*
+     * Whether an Accept-Encoding header allows gzip: listed (or covered by "*") with a q-value above 0.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.length() > 2 && parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+                gzipQuality = quality;
+            } else if ("*".equals(coding)) {
+                anyQuality = quality;
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : anyQuality;
+        return quality != null && quality > 0;
+    }
+
+    /*
+     * Text starting with =, +, -, @, tab or CR is prefixed with ' so spreadsheet tools do not run it as a formula.
+     */
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String toIsoString(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+}
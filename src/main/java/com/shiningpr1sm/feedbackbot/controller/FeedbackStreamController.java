@@ -0,0 +1,56 @@
+package com.shiningpr1sm.feedbackbot.controller;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.service.FeedbackLiveHub;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Objects;
+
+/*
+ * Live feed of newly analyzed feedbacks for the admin dashboard (Server-Sent Events).
+ */
+@RestController
+@RequestMapping("/admin/api/feedbacks/stream")
+public class FeedbackStreamController {
+
+    private final FeedbackLiveHub feedbackLiveHub;
+
+    public FeedbackStreamController(FeedbackLiveHub feedbackLiveHub) {
+        this.feedbackLiveHub = feedbackLiveHub;
+    }
+
+    /*
+     * Parameters:
+     * - branch, role: only feedbacks of this branch / role.
+     * - minCriticality: only feedbacks with at least this criticality level.
+     * Events: "feedback" (id = sequence number, data = feedback JSON) and "reset" (missed events
+     * are no longer available; reload the list). EventSource resumes via the Last-Event-ID header.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(required = false) String branch,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Integer minCriticality,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        FeedbackLiveHub.Subscription subscription;
+        Long resumeAfter;
+        try {
+            subscription = new FeedbackLiveHub.Subscription(
+                    branch,
+                    Objects.nonNull(role) ? EmployeeRole.valueOf(role.toUpperCase()) : null,
+                    minCriticality);
+            resumeAfter = Objects.nonNull(lastEventId) && !lastEventId.isBlank() ? Long.parseLong(lastEventId.trim()) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(feedbackLiveHub.subscribe(subscription, resumeAfter));
+    }
+}
@@ -0,0 +1,251 @@
+package com.shiningpr1sm.feedbackbot.controller;
+
+import com.shiningpr1sm.feedbackbot.bot.ClusterUpdateRouter;
+import com.shiningpr1sm.feedbackbot.bot.FloodControl;
+import com.shiningpr1sm.feedbackbot.bot.UpdateDispatcher;
+import com.shiningpr1sm.feedbackbot.config.QueryPlanChecker;
+import com.shiningpr1sm.feedbackbot.service.AdminResponseCache;
+import com.shiningpr1sm.feedbackbot.service.AnalysisCache;
+import com.shiningpr1sm.feedbackbot.service.AnalysisExecutor;
+import com.shiningpr1sm.feedbackbot.service.AnalysisJobWorker;
+import com.shiningpr1sm.feedbackbot.service.ClusterCoordinator;
+import com.shiningpr1sm.feedbackbot.service.FeedbackColumnStore;
+import com.shiningpr1sm.feedbackbot.service.FeedbackLiveHub;
+import com.shiningpr1sm.feedbackbot.service.FeedbackVersion;
+import com.shiningpr1sm.feedbackbot.service.GoogleSheetsService;
+import com.shiningpr1sm.feedbackbot.service.OpenAICircuitBreaker;
+import com.shiningpr1sm.feedbackbot.service.OpenAIRateLimiter;
+import com.shiningpr1sm.feedbackbot.service.OpenAIService;
+import com.shiningpr1sm.feedbackbot.service.SheetsOutboxRelay;
+import com.shiningpr1sm.feedbackbot.service.UserSessionCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Operational state of the bot internals (queues, caches, breakers).
+ */
+@RestController
+@RequestMapping("/admin/api/ops")
+public class OpsController {
+
+    private final UpdateDispatcher updateDispatcher;
+    private final UserSessionCache userSessionCache;
+    private final AnalysisExecutor analysisExecutor;
+    private final AnalysisCache analysisCache;
+    private final OpenAIService openAIService;
+    private final OpenAIRateLimiter openAIRateLimiter;
+    private final OpenAICircuitBreaker openAICircuitBreaker;
+    private final GoogleSheetsService googleSheetsService;
+    private final SheetsOutboxRelay sheetsOutboxRelay;
+    private final AnalysisJobWorker analysisJobWorker;
+    private final QueryPlanChecker queryPlanChecker;
+    private final FeedbackColumnStore feedbackColumnStore;
+    private final FeedbackLiveHub feedbackLiveHub;
+    private final AdminResponseCache adminResponseCache;
+    private final FeedbackVersion feedbackVersion;
+    private final ClusterCoordinator clusterCoordinator;
+    private final ClusterUpdateRouter clusterUpdateRouter;
+    private final FloodControl floodControl;
+
+    public OpsController(UpdateDispatcher updateDispatcher,
+                         UserSessionCache userSessionCache,
+                         AnalysisExecutor analysisExecutor,
+                         AnalysisCache analysisCache,
+                         OpenAIService openAIService,
+                         OpenAIRateLimiter openAIRateLimiter,
+                         OpenAICircuitBreaker openAICircuitBreaker,
+                         GoogleSheetsService googleSheetsService,
+                         SheetsOutboxRelay sheetsOutboxRelay,
+                         AnalysisJobWorker analysisJobWorker,
+                         QueryPlanChecker queryPlanChecker,
+                         FeedbackColumnStore feedbackColumnStore,
+                         FeedbackLiveHub feedbackLiveHub,
+                         AdminResponseCache adminResponseCache,
+                         FeedbackVersion feedbackVersion,
+                         ClusterCoordinator clusterCoordinator,
+                         ClusterUpdateRouter clusterUpdateRouter,
+                         FloodControl floodControl) {
+        this.updateDispatcher = updateDispatcher;
+        this.userSessionCache = userSessionCache;
+        this.analysisExecutor = analysisExecutor;
+        this.analysisCache = analysisCache;
+        this.openAIService = openAIService;
+        this.openAIRateLimiter = openAIRateLimiter;
+        this.openAICircuitBreaker = openAICircuitBreaker;
+        this.googleSheetsService = googleSheetsService;
+        this.sheetsOutboxRelay = sheetsOutboxRelay;
+        this.analysisJobWorker = analysisJobWorker;
+        this.queryPlanChecker = queryPlanChecker;
+        this.feedbackColumnStore = feedbackColumnStore;
+        this.feedbackLiveHub = feedbackLiveHub;
+        this.adminResponseCache = adminResponseCache;
+        this.feedbackVersion = feedbackVersion;
+        this.clusterCoordinator = clusterCoordinator;
+        this.clusterUpdateRouter = clusterUpdateRouter;
+        this.floodControl = floodControl;
+    }
+
+    @GetMapping("/dispatcher")
+    public ResponseEntity<Map<String, Object>> getDispatcherState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("queueDepths", updateDispatcher.getQueueDepths());
+        state.put("rejectedUpdates", updateDispatcher.getRejectedUpdates());
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/flood-control")
+    public ResponseEntity<Map<String, Object>> getFloodControlState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("trackedChats", floodControl.getTrackedChats());
+        state.put("verdicts", floodControl.getVerdictCounts());
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/session-cache")
+    public ResponseEntity<Map<String, Object>> getSessionCacheState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("size", userSessionCache.size());
+        state.put("hits", userSessionCache.getHits());
+        state.put("misses", userSessionCache.getMisses());
+        state.put("hitRate", userSessionCache.getHitRate());
+        state.put("flushes", userSessionCache.getFlushes());
+        state.put("flushedSessions", userSessionCache.getFlushedSessions());
+        state.put("lastFlushMillis", userSessionCache.getLastFlushMillis());
+        state.put("averageFlushMillis", userSessionCache.getAverageFlushMillis());
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/analysis-executor")
+    public ResponseEntity<Map<String, Object>> getAnalysisExecutorState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("active", analysisExecutor.getActiveCount());
+        state.put("queued", analysisExecutor.getQueuedCount());
+        state.put("accepted", analysisExecutor.getAcceptedCount());
+        state.put("rejected", analysisExecutor.getRejectedCount());
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/analysis-jobs")
+    public ResponseEntity<Map<String, Object>> getAnalysisJobsState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("nodeId", analysisJobWorker.getNodeId());
+        state.put("backlog", analysisJobWorker.getBacklogSize());
+        state.put("oldestJobSeconds", analysisJobWorker.getOldestJobAge().toSeconds());
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/analysis-cache")
+    public ResponseEntity<Map<String, Object>> getAnalysisCacheState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("promptVersion", openAIService.getPromptVersion());
+        state.put("size", analysisCache.size());
+        state.put("memoryHits", analysisCache.getMemoryHits());
+        state.put("dbHits", analysisCache.getDbHits());
+        state.put("misses", analysisCache.getMisses());
+        return ResponseEntity.ok(state);
+    }
+
+    /*
+     * Clears the memory tier and removes stored results of older prompt versions.
+     */
+    @PostMapping("/analysis-cache/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidateAnalysisCache() {
+        long removed = analysisCache.invalidate(openAIService.getPromptVersion());
+        return ResponseEntity.ok(Map.of("removedStoredEntries", removed));
+    }
+
+    @GetMapping("/openai")
+    public ResponseEntity<Map<String, Object>> getOpenAIState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("circuitState", openAICircuitBreaker.getState());
+        state.put("consecutiveFailures", openAICircuitBreaker.getConsecutiveFailures());
+        state.put("rejectedByBreaker", openAICircuitBreaker.getRejectedCalls());
+        state.put("bucketCapacity", openAIRateLimiter.getCapacity());
+        state.put("bucketTokens", openAIRateLimiter.getAvailableTokens());
+        state.put("pausedForMillis", openAIRateLimiter.getPausedForMillis());
+        state.put("shedByLimiter", openAIRateLimiter.getShedRequests());
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/sheets")
+    public ResponseEntity<Map<String, Object>> getSheetsExportState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("outboxBacklog", sheetsOutboxRelay.getBacklogSize());
+        state.put("oldestPendingSeconds", sheetsOutboxRelay.getOldestPendingAge().toSeconds());
+        state.put("lastExportedFeedbackId", sheetsOutboxRelay.getLastExportedFeedbackId());
+        state.put("bufferedRows", googleSheetsService.getBufferedRows());
+        return ResponseEntity.ok(state);
+    }
+
+    /*
+     * Re-queues feedbacks above fromId, or above the export high-watermark when fromId is omitted.
+     */
+    @PostMapping("/sheets/resync")
+    public ResponseEntity<Map<String, Object>> resyncSheets(@RequestParam(required = false) Long fromId) {
+        int queued = sheetsOutboxRelay.resync(fromId);
+        return ResponseEntity.ok(Map.of("queuedRows", queued));
+    }
+
+    @GetMapping("/column-store")
+    public ResponseEntity<Map<String, Object>> getColumnStoreState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("ready", feedbackColumnStore.isReady());
+        state.put("rows", feedbackColumnStore.getRowCount());
+        state.put("branches", feedbackColumnStore.getBranchCount());
+        state.put("columnBytes", feedbackColumnStore.getColumnBytes());
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/live-feed")
+    public ResponseEntity<Map<String, Object>> getLiveFeedState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("subscribers", feedbackLiveHub.getSubscriberCount());
+        state.put("sentEvents", feedbackLiveHub.getSentEvents());
+        state.put("droppedSubscribers", feedbackLiveHub.getDroppedSubscribers());
+        return ResponseEntity.ok(state);
+    }
+
+    @GetMapping("/admin-cache")
+    public ResponseEntity<Map<String, Object>> getAdminCacheState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("feedbackVersion", feedbackVersion.current());
+        state.put("size", adminResponseCache.size());
+        state.put("hits", adminResponseCache.getHits());
+        state.put("misses", adminResponseCache.getMisses());
+        return ResponseEntity.ok(state);
+    }
+
+    /*
+     * This node's view of the cluster; leases are read from the database, so they show the holders on all nodes.
+     */
+    @GetMapping("/cluster")
+    public ResponseEntity<Map<String, Object>> getClusterState() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("enabled", clusterCoordinator.isEnabled());
+        state.put("nodeId", clusterCoordinator.getNodeId());
+        state.put("liveNodes", clusterCoordinator.getLiveNodes());
+        state.put("heldLeases", clusterCoordinator.getHeldLeases());
+        state.put("leases", clusterCoordinator.getLeases());
+        state.put("forwardedUpdates", clusterUpdateRouter.getAcceptedForwards());
+        state.put("busyForwards", clusterUpdateRouter.getBusyForwards());
+        state.put("failedForwards", clusterUpdateRouter.getFailedForwards());
+        state.put("queuedForwards", clusterUpdateRouter.getQueuedForwards());
+        return ResponseEntity.ok(state);
+    }
+
+    /*
+     * EXPLAINs the admin filter shapes and reports the indexes each one uses.
+     */
+    @GetMapping("/query-plans")
+    public ResponseEntity<List<QueryPlanChecker.PlanCheck>> getQueryPlans() {
+        return ResponseEntity.ok(queryPlanChecker.check());
+    }
+}
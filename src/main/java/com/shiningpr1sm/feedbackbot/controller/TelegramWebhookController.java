@@ -0,0 +1,54 @@
+package com.shiningpr1sm.feedbackbot.controller;
+
+import com.shiningpr1sm.feedbackbot.bot.ClusterUpdateRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/*
+ * Webhook transport, enabled with telegram.bot.mode=webhook.
+ * The webhook itself is registered with Telegram via setWebhook (url + secret_token).
+ * In cluster mode any node may receive the webhook (e.g. behind a load balancer); no ingestion lease is needed.
+ */
+@RestController
+@ConditionalOnProperty(name = "telegram.bot.mode", havingValue = "webhook")
+public class TelegramWebhookController {
+
+    private final ClusterUpdateRouter clusterUpdateRouter;
+    // empty = requests are not authenticated
+    private final byte[] secretToken;
+
+    public TelegramWebhookController(ClusterUpdateRouter clusterUpdateRouter,
+                                     @Value("${telegram.bot.webhook.secret-token:}") String secretToken) {
+        this.clusterUpdateRouter = clusterUpdateRouter;
+        this.secretToken = secretToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /*
+     * Acknowledges the update once it is queued on its chat's stripe (a virtual thread), here or, in cluster mode,
+     * on the node owning the chat. A full stripe answers 503, so Telegram keeps the update and redelivers it later.
+     */
+    @PostMapping("${telegram.bot.webhook.path:/telegram/webhook}")
+    public ResponseEntity<Void> onUpdate(
+            @RequestHeader(name = "X-Telegram-Bot-Api-Secret-Token", required = false) String requestToken,
+            @RequestBody Update update
+    ) throws InterruptedException {
+        if (secretToken.length > 0 && (requestToken == null
+                || !MessageDigest.isEqual(secretToken, requestToken.getBytes(StandardCharsets.UTF_8)))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!clusterUpdateRouter.tryRoute(update)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.shiningpr1sm.feedbackbot.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "analysis_cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisCacheEntry {
+
+    // SHA-256 of prompt version + normalized feedback text
+    @Id
+    @Column(length = 64)
+    private String cacheKey;
+
+    @Column(nullable = false)
+    private String promptVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FeedbackSentiment sentiment;
+
+    @Column(nullable = false)
+    private Integer criticalityLevel;
+
+    @Column(columnDefinition = "TEXT")
+    private String resolutionSuggestion;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
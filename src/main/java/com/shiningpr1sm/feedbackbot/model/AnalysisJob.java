@@ -0,0 +1,61 @@
+package com.shiningpr1sm.feedbackbot.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+ * Durable analysis work item for a PENDING feedback. A worker claims it by setting a lease
+ * (lockedBy/lockedUntil); an expired lease makes the job claimable again, e.g. after a crash.
+ */
+@Entity
+@Table(name = "analysis_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private Long feedbackId;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    private String lockedBy;
+
+    private LocalDateTime lockedUntil;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // W3C traceparent of the feedback's trace; null for rows queued outside a trace
+    @Column(length = 55)
+    private String traceParent;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+    }
+
+    public AnalysisJob(Long feedbackId) {
+        this.feedbackId = feedbackId;
+    }
+
+    public AnalysisJob(Long feedbackId, String traceParent) {
+        this.feedbackId = feedbackId;
+        this.traceParent = traceParent;
+    }
+}
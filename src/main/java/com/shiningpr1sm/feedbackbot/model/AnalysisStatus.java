@@ -0,0 +1,7 @@
+package com.shiningpr1sm.feedbackbot.model;
+
+public enum AnalysisStatus {
+    PENDING,
+    ANALYZED,
+    FAILED
+}
@@ -46,9 +46,16 @@ public class Feedback {
 
     private boolean trelloCardCreated;
 
+    // sentiment, criticalityLevel and resolutionSuggestion are filled in once the status is ANALYZED
+    @Enumerated(EnumType.STRING)
+    private AnalysisStatus analysisStatus;
+
     @PrePersist
     protected void onCreate() {
         submittedAt = LocalDateTime.now();
         trelloCardCreated = false;
+        if (analysisStatus == null) {
+            analysisStatus = AnalysisStatus.PENDING;
+        }
     }
 }
\ No newline at end of file
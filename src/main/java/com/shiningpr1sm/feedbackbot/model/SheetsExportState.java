@@ -0,0 +1,36 @@
+package com.shiningpr1sm.feedbackbot.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+ * High-watermark of the Sheets export: the largest Feedback.id known to be in the sheet.
+ */
+@Entity
+@Table(name = "sheets_export_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetsExportState {
+
+    public static final String FEEDBACKS = "feedbacks";
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastExportedFeedbackId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
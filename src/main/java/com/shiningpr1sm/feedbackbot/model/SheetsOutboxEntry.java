@@ -0,0 +1,47 @@
+package com.shiningpr1sm.feedbackbot.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/*
+ * A feedback row that still has to be exported to Google Sheets.
+ */
+@Entity
+@Table(name = "sheets_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SheetsOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long feedbackId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // W3C traceparent of the feedback's trace; null for rows queued outside a trace
+    @Column(length = 55)
+    private String traceParent;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public SheetsOutboxEntry(Long feedbackId) {
+        this.feedbackId = feedbackId;
+    }
+
+    public SheetsOutboxEntry(Long feedbackId, String traceParent) {
+        this.feedbackId = feedbackId;
+        this.traceParent = traceParent;
+    }
+}
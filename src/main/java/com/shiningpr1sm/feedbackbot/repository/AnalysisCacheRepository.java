@@ -0,0 +1,47 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.AnalysisCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AnalysisCacheRepository extends JpaRepository<AnalysisCacheEntry, String> {
+
+    @Transactional
+    long deleteByPromptVersionNot(String promptVersion);
+
+    /*
+     * Inserts or refreshes an entry; a refreshed entry starts a new TTL. Concurrent puts of the same key
+     * both succeed, the last one wins.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO {h-schema}analysis_cache
+                (cache_key, prompt_version, sentiment, criticality_level, resolution_suggestion, created_at)
+            VALUES (:cacheKey, :promptVersion, :sentiment, :criticalityLevel, :resolutionSuggestion, :createdAt)
+            ON CONFLICT (cache_key) DO UPDATE SET
+                prompt_version = EXCLUDED.prompt_version,
+                sentiment = EXCLUDED.sentiment,
+                criticality_level = EXCLUDED.criticality_level,
+                resolution_suggestion = EXCLUDED.resolution_suggestion,
+                created_at = EXCLUDED.created_at
+            """)
+    int upsert(@Param("cacheKey") String cacheKey,
+               @Param("promptVersion") String promptVersion,
+               @Param("sentiment") String sentiment,
+               @Param("criticalityLevel") int criticalityLevel,
+               @Param("resolutionSuggestion") String resolutionSuggestion,
+               @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM {h-schema}analysis_cache WHERE created_at < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
@@ -0,0 +1,56 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.AnalysisJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, Long> {
+
+    /*
+     * Row-locks the next due, unleased jobs; rows locked by another worker's open claim are skipped.
+     * Must run inside the claiming transaction.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT * FROM {h-schema}analysis_jobs
+            WHERE available_at <= :now
+              AND (locked_until IS NULL OR locked_until < :now)
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """)
+    List<AnalysisJob> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /*
+     * Claims one specific job (fast path for jobs created on this node). Returns 0 if it is leased elsewhere.
+     */
+    @Transactional
+    @Modifying
+    @Query("update AnalysisJob j set j.lockedBy = :nodeId, j.lockedUntil = :leaseUntil, j.attempts = j.attempts + 1 " +
+            "where j.id = :id and (j.lockedUntil is null or j.lockedUntil < :now)")
+    int claimById(@Param("id") Long id, @Param("nodeId") String nodeId,
+                  @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /*
+     * Gives a claimed job back without counting the attempt (the local executor had no room for it).
+     */
+    @Transactional
+    @Modifying
+    @Query("update AnalysisJob j set j.lockedBy = null, j.lockedUntil = null, j.attempts = j.attempts - 1 where j.id = :id")
+    int unclaim(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query("update AnalysisJob j set j.lockedBy = null, j.lockedUntil = null, j.availableAt = :availableAt where j.id = :id")
+    int reschedule(@Param("id") Long id, @Param("availableAt") LocalDateTime availableAt);
+
+    Optional<AnalysisJob> findFirstByOrderByIdAsc();
+}
@@ -0,0 +1,9 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import java.time.LocalDateTime;
+
+/*
+ * Current holder of a singleton role. expiresAt in the past means the role is free to take over.
+ */
+public record ClusterLease(String name, String owner, LocalDateTime acquiredAt, LocalDateTime expiresAt) {
+}
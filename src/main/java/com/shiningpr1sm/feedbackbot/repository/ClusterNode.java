@@ -0,0 +1,7 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+/*
+ * A live bot instance; baseUrl is where the other nodes reach its /internal/cluster endpoints.
+ */
+public record ClusterNode(String nodeId, String baseUrl) {
+}
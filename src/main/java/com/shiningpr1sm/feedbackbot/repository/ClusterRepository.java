@@ -0,0 +1,84 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/*
+ * JDBC access to cluster_nodes and cluster_leases. Expiry is computed with the database's now(),
+ * so a lease means the same thing to every node regardless of clock skew between them.
+ */
+@Repository
+public class ClusterRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodesTable;
+    private final String leasesTable;
+
+    public ClusterRepository(JdbcTemplate jdbcTemplate,
+                             @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodesTable = schema + ".cluster_nodes";
+        this.leasesTable = schema + ".cluster_leases";
+    }
+
+    public void heartbeat(String nodeId, String baseUrl) {
+        jdbcTemplate.update("INSERT INTO " + nodesTable + " (node_id, base_url, started_at, heartbeat_at) " +
+                        "VALUES (?, ?, now(), now()) " +
+                        "ON CONFLICT (node_id) DO UPDATE SET base_url = EXCLUDED.base_url, heartbeat_at = now()",
+                nodeId, baseUrl);
+    }
+
+    /*
+     * Nodes that sent a heartbeat within ttlMillis, ordered by id.
+     */
+    public List<ClusterNode> findLiveNodes(long ttlMillis) {
+        return jdbcTemplate.query("SELECT node_id, base_url FROM " + nodesTable +
+                        " WHERE heartbeat_at > now() - ? * INTERVAL '1 millisecond' ORDER BY node_id",
+                (rs, rowNum) -> new ClusterNode(rs.getString("node_id"), rs.getString("base_url")),
+                ttlMillis);
+    }
+
+    public void removeNode(String nodeId) {
+        jdbcTemplate.update("DELETE FROM " + nodesTable + " WHERE node_id = ?", nodeId);
+    }
+
+    /*
+     * Node ids are random per start by default, so rows of stopped nodes are removed after a while.
+     */
+    public int deleteNodesSilentFor(long millis) {
+        return jdbcTemplate.update("DELETE FROM " + nodesTable +
+                " WHERE heartbeat_at < now() - ? * INTERVAL '1 millisecond'", millis);
+    }
+
+    /*
+     * Takes the lease if it is free or expired, or extends it if the node already holds it.
+     * A single upsert, so of two nodes racing for an expired lease exactly one wins.
+     */
+    public boolean tryAcquireLease(String name, String nodeId, long ttlMillis) {
+        List<String> owners = jdbcTemplate.queryForList("INSERT INTO " + leasesTable + " AS l " +
+                        "(name, owner, acquired_at, expires_at) VALUES (?, ?, now(), now() + ? * INTERVAL '1 millisecond') " +
+                        "ON CONFLICT (name) DO UPDATE SET owner = EXCLUDED.owner, expires_at = EXCLUDED.expires_at, " +
+                        "acquired_at = CASE WHEN l.owner = EXCLUDED.owner THEN l.acquired_at ELSE EXCLUDED.acquired_at END " +
+                        "WHERE l.owner = EXCLUDED.owner OR l.expires_at < now() " +
+                        "RETURNING owner",
+                String.class, name, nodeId, ttlMillis);
+        return !owners.isEmpty();
+    }
+
+    /*
+     * Expires the lease right away, so another node can take it on its next heartbeat.
+     */
+    public void releaseLease(String name, String nodeId) {
+        jdbcTemplate.update("UPDATE " + leasesTable + " SET expires_at = now() WHERE name = ? AND owner = ?",
+                name, nodeId);
+    }
+
+    public List<ClusterLease> findLeases() {
+        return jdbcTemplate.query("SELECT name, owner, acquired_at, expires_at FROM " + leasesTable + " ORDER BY name",
+                (rs, rowNum) -> new ClusterLease(rs.getString("name"), rs.getString("owner"),
+                        rs.getTimestamp("acquired_at").toLocalDateTime(), rs.getTimestamp("expires_at").toLocalDateTime()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+
+import java.time.LocalDateTime;
+
+/*
+ * The analytics dimensions of a feedback, without the message texts.
+ */
+public record FeedbackDimensions(Long id,
+                                 String branch,
+                                 EmployeeRole employeeRole,
+                                 FeedbackSentiment sentiment,
+                                 Integer criticalityLevel,
+                                 LocalDateTime submittedAt) {
+}
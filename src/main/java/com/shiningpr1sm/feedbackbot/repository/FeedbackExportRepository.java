@@ -0,0 +1,61 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Forward-only streaming read of the feedbacks table for bulk export. Rows are handed to the callback
+ * one by one while the PostgreSQL driver fetches them fetch-size at a time through a server-side cursor
+ * (which needs a transaction, i.e. autocommit off), so memory does not grow with the result size.
+ */
+@Repository
+public class FeedbackExportRepository {
+
+    public static final String COLUMNS = "id, chat_id, employee_role, branch, message, sentiment, criticality_level, " +
+            "resolution_suggestion, submitted_at, analysis_status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final String schema;
+
+    public FeedbackExportRepository(DataSource dataSource,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema,
+                                    @Value("${admin.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.schema = schema;
+    }
+
+    /*
+     * Calls rowHandler for every feedback matching the filter, in id order.
+     */
+    public void streamAll(FeedbackFilter filter, RowCallbackHandler rowHandler) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS)
+                .append(" FROM ").append(schema).append(".feedbacks f WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        filter.appendSqlConditions(sql, args, "f");
+        sql.append(" ORDER BY f.id");
+
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, rowHandler));
+    }
+}
@@ -0,0 +1,69 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * Any subset of the admin filters; null fields are not applied.
+ * The date range is [from, to) on submittedAt.
+ */
+public record FeedbackFilter(String branch,
+                             EmployeeRole role,
+                             Integer criticality,
+                             FeedbackSentiment sentiment,
+                             LocalDateTime from,
+                             LocalDateTime to) {
+
+    public static final FeedbackFilter NONE = new FeedbackFilter(null, null, null, null, null, null);
+
+    /*
+     * Builds a filter from raw request parameters.
+     * Throws IllegalArgumentException for an unknown role or sentiment.
+     */
+    public static FeedbackFilter of(String branch, String role, Integer criticality, String sentiment,
+                                    LocalDateTime from, LocalDateTime to) {
+        return new FeedbackFilter(
+                branch,
+                Objects.nonNull(role) ? EmployeeRole.valueOf(role.toUpperCase()) : null,
+                criticality,
+                Objects.nonNull(sentiment) ? FeedbackSentiment.valueOf(sentiment.toUpperCase()) : null,
+                from,
+                to);
+    }
+
+    /*
+     * SQL form of the filter for the JDBC read paths; appends "AND ..." conditions on the given table alias
+     * and their bind values. Column names follow the feedbacks table.
+     */
+    public void appendSqlConditions(StringBuilder sql, List<Object> args, String alias) {
+        if (branch != null) {
+            sql.append(" AND ").append(alias).append(".branch = ?");
+            args.add(branch);
+        }
+        if (role != null) {
+            sql.append(" AND ").append(alias).append(".employee_role = ?");
+            args.add(role.name());
+        }
+        if (criticality != null) {
+            sql.append(" AND ").append(alias).append(".criticality_level = ?");
+            args.add(criticality);
+        }
+        if (sentiment != null) {
+            sql.append(" AND ").append(alias).append(".sentiment = ?");
+            args.add(sentiment.name());
+        }
+        if (from != null) {
+            sql.append(" AND ").append(alias).append(".submitted_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND ").append(alias).append(".submitted_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+
+import java.util.List;
+
+/*
+ * One keyset page; nextCursor is null on the last page.
+ */
+public record FeedbackPage(List<Feedback> items, String nextCursor) {
+}
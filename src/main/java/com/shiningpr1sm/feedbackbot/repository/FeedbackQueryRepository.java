@@ -0,0 +1,91 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Composable feedback queries for the admin API: any subset of FeedbackFilter,
+ * ordered by (submittedAt, id) and paginated by keyset instead of OFFSET.
+ */
+@Repository
+public class FeedbackQueryRepository {
+
+    private final EntityManager entityManager;
+
+    public FeedbackQueryRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /*
+     * Returns up to limit rows after the cursor (or from the start when cursor is null).
+     */
+    public FeedbackPage findPage(FeedbackFilter filter, FeedbackCursor cursor, boolean ascending, int limit) {
+        List<Feedback> rows = createQuery(filter, cursor, ascending)
+                .setMaxResults(limit + 1)
+                .getResultList();
+        if (rows.size() <= limit) {
+            return new FeedbackPage(rows, null);
+        }
+        List<Feedback> items = new ArrayList<>(rows.subList(0, limit));
+        Feedback last = items.get(items.size() - 1);
+        return new FeedbackPage(items, new FeedbackCursor(last.getSubmittedAt(), last.getId()).encode());
+    }
+
+    private TypedQuery<Feedback> createQuery(FeedbackFilter filter, FeedbackCursor cursor, boolean ascending) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Feedback> query = cb.createQuery(Feedback.class);
+        Root<Feedback> feedback = query.from(Feedback.class);
+        Path<LocalDateTime> submittedAt = feedback.get("submittedAt");
+        Path<Long> id = feedback.get("id");
+
+        List<Predicate> predicates = toPredicates(cb, feedback, filter);
+        if (cursor != null) {
+            predicates.add(ascending
+                    ? cb.or(cb.greaterThan(submittedAt, cursor.submittedAt()),
+                            cb.and(cb.equal(submittedAt, cursor.submittedAt()), cb.greaterThan(id, cursor.id())))
+                    : cb.or(cb.lessThan(submittedAt, cursor.submittedAt()),
+                            cb.and(cb.equal(submittedAt, cursor.submittedAt()), cb.lessThan(id, cursor.id()))));
+        }
+
+        query.select(feedback)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(ascending
+                        ? List.of(cb.asc(submittedAt), cb.asc(id))
+                        : List.of(cb.desc(submittedAt), cb.desc(id)));
+        return entityManager.createQuery(query);
+    }
+
+    private static List<Predicate> toPredicates(CriteriaBuilder cb, Root<Feedback> feedback, FeedbackFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.branch() != null) {
+            predicates.add(cb.equal(feedback.get("branch"), filter.branch()));
+        }
+        if (filter.role() != null) {
+            predicates.add(cb.equal(feedback.get("employeeRole"), filter.role()));
+        }
+        if (filter.criticality() != null) {
+            predicates.add(cb.equal(feedback.get("criticalityLevel"), filter.criticality()));
+        }
+        if (filter.sentiment() != null) {
+            predicates.add(cb.equal(feedback.get("sentiment"), filter.sentiment()));
+        }
+        if (filter.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(feedback.<LocalDateTime>get("submittedAt"), filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(cb.lessThan(feedback.<LocalDateTime>get("submittedAt"), filter.to()));
+        }
+        return predicates;
+    }
+}
@@ -1,32 +1,33 @@
 package com.shiningpr1sm.feedbackbot.repository;
 
-import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
 import com.shiningpr1sm.feedbackbot.model.Feedback;
-import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 
-    List<Feedback> findByBranch(String branch);
-
-    List<Feedback> findByEmployeeRole(EmployeeRole employeeRole);
-
-    List<Feedback> findByCriticalityLevel(Integer criticalityLevel);
-
-    List<Feedback> findBySentiment(FeedbackSentiment sentiment);
-
-    List<Feedback> findByBranchAndEmployeeRole(String branch, EmployeeRole employeeRole);
-
-    List<Feedback> findByBranchAndCriticalityLevel(String branch, Integer criticalityLevel);
-
-    List<Feedback> findByEmployeeRoleAndCriticalityLevel(EmployeeRole employeeRole, Integer criticalityLevel);
-
-    List<Feedback> findByBranchAndEmployeeRoleAndCriticalityLevel(String branch, EmployeeRole employeeRole, Integer criticalityLevel);
-
-    List<Feedback> findByBranchAndEmployeeRoleAndCriticalityLevelAndSentiment(String branch, EmployeeRole employeeRole, Integer criticalityLevel, FeedbackSentiment sentiment);
-}
\ No newline at end of file
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from Feedback f where f.id = :id")
+    Optional<Feedback> findByIdForUpdate(@Param("id") Long id);
+
+    /*
+     * Streams the dimensions of all analyzed feedbacks through a server-side cursor.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.shiningpr1sm.feedbackbot.repository.FeedbackDimensions(" +
+            "f.id, f.branch, f.employeeRole, f.sentiment, f.criticalityLevel, f.submittedAt) " +
+            "from Feedback f where f.analysisStatus = com.shiningpr1sm.feedbackbot.model.AnalysisStatus.ANALYZED")
+    Stream<FeedbackDimensions> streamAnalyzedDimensions();
+}
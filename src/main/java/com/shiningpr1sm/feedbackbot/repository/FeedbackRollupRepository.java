@@ -0,0 +1,164 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * JDBC access to feedback_rollups. The upserts add to existing buckets (ON CONFLICT DO UPDATE),
+ * so concurrent writers never lose an increment.
+ */
+@Repository
+public class FeedbackRollupRepository {
+
+    public enum Dimension {
+        DAY("day"),
+        BRANCH("branch"),
+        ROLE("employee_role"),
+        SENTIMENT("sentiment");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+    }
+
+    private static final String UPSERT_SUFFIX = """
+             ON CONFLICT (day, branch, employee_role, sentiment) DO UPDATE SET
+                feedback_count = r.feedback_count + EXCLUDED.feedback_count,
+                criticality_sum = r.criticality_sum + EXCLUDED.criticality_sum,
+                criticality_count = r.criticality_count + EXCLUDED.criticality_count
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final String feedbacksTable;
+    private final String backlogTable;
+
+    public FeedbackRollupRepository(JdbcTemplate jdbcTemplate,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = schema + ".feedback_rollups";
+        this.feedbacksTable = schema + ".feedbacks";
+        this.backlogTable = schema + ".feedback_rollup_backlog";
+    }
+
+    public void increment(LocalDate day, String branch, EmployeeRole role, FeedbackSentiment sentiment, Integer criticality) {
+        jdbcTemplate.update("INSERT INTO " + table + " AS r " +
+                        "(day, branch, employee_role, sentiment, feedback_count, criticality_sum, criticality_count) " +
+                        "VALUES (?, ?, ?, ?, 1, ?, ?)" + UPSERT_SUFFIX,
+                Date.valueOf(day), branch, role.name(), sentiment.name(),
+                criticality != null ? criticality : 0, criticality != null ? 1 : 0);
+    }
+
+    /*
+     * Adds the analyzed feedbacks with fromId <= id <= toId to the rollups, except those in the backlog (they are
+     * added by replayBacklog). Buckets are written in key order, so chunks running in parallel lock shared buckets
+     * in the same order and cannot deadlock.
+     */
+    public int addRange(long fromId, long toId) {
+        return jdbcTemplate.update("INSERT INTO " + table + " AS r " +
+                        "(day, branch, employee_role, sentiment, feedback_count, criticality_sum, criticality_count) " +
+                        "SELECT CAST(f.submitted_at AS DATE), f.branch, f.employee_role, f.sentiment, " +
+                        "COUNT(*), COALESCE(SUM(f.criticality_level), 0), COUNT(f.criticality_level) " +
+                        "FROM " + feedbacksTable + " f " +
+                        "WHERE f.id BETWEEN ? AND ? AND f.analysis_status = 'ANALYZED' AND f.sentiment IS NOT NULL " +
+                        "AND NOT EXISTS (SELECT 1 FROM " + backlogTable + " b WHERE b.feedback_id = f.id) " +
+                        "GROUP BY 1, 2, 3, 4 ORDER BY 1, 2, 3, 4" + UPSERT_SUFFIX,
+                fromId, toId);
+    }
+
+    public void addToBacklog(long feedbackId) {
+        jdbcTemplate.update("INSERT INTO " + backlogTable + " (feedback_id) VALUES (?) ON CONFLICT DO NOTHING",
+                feedbackId);
+    }
+
+    /*
+     * Moves the backlog into the rollups in one statement; a row taken by a concurrent replay is skipped.
+     * Returns the number of buckets written.
+     */
+    public int replayBacklog() {
+        return jdbcTemplate.update("WITH replayed AS (DELETE FROM " + backlogTable + " RETURNING feedback_id) " +
+                "INSERT INTO " + table + " AS r " +
+                "(day, branch, employee_role, sentiment, feedback_count, criticality_sum, criticality_count) " +
+                "SELECT CAST(f.submitted_at AS DATE), f.branch, f.employee_role, f.sentiment, " +
+                "COUNT(*), COALESCE(SUM(f.criticality_level), 0), COUNT(f.criticality_level) " +
+                "FROM " + feedbacksTable + " f JOIN replayed b ON b.feedback_id = f.id " +
+                "WHERE f.analysis_status = 'ANALYZED' AND f.sentiment IS NOT NULL " +
+                "GROUP BY 1, 2, 3, 4 ORDER BY 1, 2, 3, 4" + UPSERT_SUFFIX);
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM " + table);
+    }
+
+    public long[] findFeedbackIdRange() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), -1) FROM " + feedbacksTable,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    public long countBuckets() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /*
+     * Sums the buckets matching the filters (null = any), grouped by the given dimensions.
+     * Cost depends on the number of buckets in range, not on the number of feedbacks.
+     */
+    public List<RollupBucket> query(LocalDate from, LocalDate to, String branch, EmployeeRole role,
+                                    FeedbackSentiment sentiment, List<Dimension> groupBy) {
+        StringBuilder select = new StringBuilder("SELECT ");
+        for (Dimension dimension : Dimension.values()) {
+            select.append(groupBy.contains(dimension) ? dimension.column : "NULL").append(" AS ").append(dimension.column).append(", ");
+        }
+        select.append("SUM(feedback_count) AS feedback_count, SUM(criticality_sum) AS criticality_sum, ")
+                .append("SUM(criticality_count) AS criticality_count FROM ").append(table).append(" WHERE 1 = 1");
+
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            select.append(" AND day >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            select.append(" AND day < ?");
+            args.add(Date.valueOf(to));
+        }
+        if (branch != null) {
+            select.append(" AND branch = ?");
+            args.add(branch);
+        }
+        if (role != null) {
+            select.append(" AND employee_role = ?");
+            args.add(role.name());
+        }
+        if (sentiment != null) {
+            select.append(" AND sentiment = ?");
+            args.add(sentiment.name());
+        }
+        if (!groupBy.isEmpty()) {
+            String columns = String.join(", ", groupBy.stream().map(dimension -> dimension.column).toList());
+            select.append(" GROUP BY ").append(columns).append(" ORDER BY ").append(columns);
+        }
+
+        return jdbcTemplate.query(select.toString(), (rs, rowNum) -> {
+            long criticalityCount = rs.getLong("criticality_count");
+            Date day = rs.getDate("day");
+            return new RollupBucket(
+                    day != null ? day.toLocalDate() : null,
+                    rs.getString("branch"),
+                    rs.getString("employee_role"),
+                    rs.getString("sentiment"),
+                    rs.getLong("feedback_count"),
+                    criticalityCount > 0 ? (double) rs.getLong("criticality_sum") / criticalityCount : null);
+        }, args.toArray());
+    }
+}
@@ -0,0 +1,13 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+
+/*
+ * A search result. The highlights are HTML-escaped text with matches wrapped in <mark> tags;
+ * a highlight is null when its column is empty.
+ */
+public record FeedbackSearchHit(Feedback feedback,
+                                double rank,
+                                String messageHighlight,
+                                String resolutionSuggestionHighlight) {
+}
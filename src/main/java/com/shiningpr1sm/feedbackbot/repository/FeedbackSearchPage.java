@@ -0,0 +1,9 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import java.util.List;
+
+/*
+ * One page of ranked search results; hasMore tells whether page + 1 has results.
+ */
+public record FeedbackSearchPage(List<FeedbackSearchHit> items, int page, boolean hasMore) {
+}
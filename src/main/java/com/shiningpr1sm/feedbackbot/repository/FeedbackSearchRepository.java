@@ -0,0 +1,121 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.AnalysisStatus;
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.util.HtmlUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/*
+ * Ranked full-text search over feedbacks.search_vector (message weighted above resolution suggestion),
+ * served by its GIN index and combinable with FeedbackFilter.
+ */
+@Repository
+public class FeedbackSearchRepository {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_TERMS = 10;
+    // control characters as match markers, so the text can be HTML-escaped before they become <mark> tags
+    private static final String START_MARK = "\u0001";
+    private static final String STOP_MARK = "\u0002";
+    private static final String HEADLINE_OPTIONS = "StartSel=" + START_MARK + ", StopSel=" + STOP_MARK
+            + ", MaxWords=35, MinWords=10, MaxFragments=2, FragmentDelimiter=\" … \"";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+    private final String config;
+
+    public FeedbackSearchRepository(JdbcTemplate jdbcTemplate,
+                                    @Value("${spring.jpa.properties.hibernate.default_schema:public}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+        this.config = "'" + schema + ".feedback_uk'::regconfig";
+    }
+
+    /*
+     * Every word of the query must match, as a prefix ("двигун" also finds "двигуна", "двигуном").
+     * Returns null when the query has no searchable words.
+     */
+    static String toTsQuery(String query) {
+        List<String> terms = Arrays.stream(NON_WORD.split(query.toLowerCase()))
+                .filter(term -> !term.isEmpty())
+                .limit(MAX_TERMS)
+                .map(term -> term + ":*")
+                .toList();
+        return terms.isEmpty() ? null : String.join(" & ", terms);
+    }
+
+    /*
+     * Returns the given page (0-based) of hits ordered by rank, then newest first.
+     * Throws IllegalArgumentException when the query has no searchable words.
+     */
+    public FeedbackSearchPage search(String query, FeedbackFilter filter, int page, int size) {
+        String tsQuery = toTsQuery(query);
+        if (tsQuery == null) {
+            throw new IllegalArgumentException("Empty search query");
+        }
+
+        // rank and page on the index-matched rows first; headlines are computed for the page rows only
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT f.id, f.chat_id, f.employee_role, f.branch, f.message, f.sentiment, f.criticality_level, ")
+                .append("f.resolution_suggestion, f.submitted_at, f.trello_card_created, f.analysis_status, hit.rank, ")
+                .append("ts_headline(").append(config).append(", f.message, hit.q, '").append(HEADLINE_OPTIONS).append("') AS message_highlight, ")
+                .append("ts_headline(").append(config).append(", f.resolution_suggestion, hit.q, '").append(HEADLINE_OPTIONS).append("') AS resolution_highlight ")
+                .append("FROM (SELECT f.id, q, ts_rank_cd(f.search_vector, q) AS rank ")
+                .append("FROM ").append(schema).append(".feedbacks f, to_tsquery(").append(config).append(", ?) q ")
+                .append("WHERE f.search_vector @@ q");
+        List<Object> args = new ArrayList<>();
+        args.add(tsQuery);
+        filter.appendSqlConditions(sql, args, "f");
+        sql.append(" ORDER BY rank DESC, f.id DESC LIMIT ? OFFSET ?) hit ")
+                .append("JOIN ").append(schema).append(".feedbacks f ON f.id = hit.id ")
+                .append("ORDER BY hit.rank DESC, f.id DESC");
+        args.add(size + 1);
+        args.add((long) page * size);
+
+        List<FeedbackSearchHit> hits = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new FeedbackSearchHit(
+                toFeedback(rs),
+                rs.getDouble("rank"),
+                toHtml(rs.getString("message_highlight")),
+                toHtml(rs.getString("resolution_highlight"))), args.toArray());
+        boolean hasMore = hits.size() > size;
+        return new FeedbackSearchPage(hasMore ? new ArrayList<>(hits.subList(0, size)) : hits, page, hasMore);
+    }
+
+    private static Feedback toFeedback(ResultSet rs) throws SQLException {
+        String sentiment = rs.getString("sentiment");
+        String analysisStatus = rs.getString("analysis_status");
+        Timestamp submittedAt = rs.getTimestamp("submitted_at");
+        return Feedback.builder()
+                .id(rs.getLong("id"))
+                .chatId(rs.getLong("chat_id"))
+                .employeeRole(EmployeeRole.valueOf(rs.getString("employee_role")))
+                .branch(rs.getString("branch"))
+                .message(rs.getString("message"))
+                .sentiment(sentiment != null ? FeedbackSentiment.valueOf(sentiment) : null)
+                .criticalityLevel((Integer) rs.getObject("criticality_level"))
+                .resolutionSuggestion(rs.getString("resolution_suggestion"))
+                .submittedAt(submittedAt != null ? submittedAt.toLocalDateTime() : null)
+                .trelloCardCreated(rs.getBoolean("trello_card_created"))
+                .analysisStatus(analysisStatus != null ? AnalysisStatus.valueOf(analysisStatus) : null)
+                .build();
+    }
+
+    private static String toHtml(String headline) {
+        if (headline == null || headline.isEmpty()) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline).replace(START_MARK, "<mark>").replace(STOP_MARK, "</mark>");
+    }
+}
@@ -0,0 +1,15 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import java.time.LocalDate;
+
+/*
+ * One row of a rollup query. Dimensions that were not grouped by are null.
+ * averageCriticality is null when no feedback in the bucket has a criticality level.
+ */
+public record RollupBucket(LocalDate day,
+                           String branch,
+                           String role,
+                           String sentiment,
+                           long count,
+                           Double averageCriticality) {
+}
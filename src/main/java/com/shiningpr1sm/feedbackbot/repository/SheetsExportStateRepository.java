@@ -0,0 +1,9 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.SheetsExportState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SheetsExportStateRepository extends JpaRepository<SheetsExportState, String> {
+}
@@ -0,0 +1,37 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import com.shiningpr1sm.feedbackbot.model.SheetsOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SheetsOutboxRepository extends JpaRepository<SheetsOutboxEntry, Long> {
+
+    List<SheetsOutboxEntry> findAllByOrderByIdAsc(Pageable pageable);
+
+    Optional<SheetsOutboxEntry> findFirstByOrderByIdAsc();
+
+    /*
+     * Re-queues every analyzed feedback above the watermark that is not already waiting in the outbox.
+     * Pending feedbacks are left out: completeAnalysis queues them once they are analyzed.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO {h-schema}sheets_outbox (feedback_id, created_at)
+            SELECT f.id, now() FROM {h-schema}feedbacks f
+            WHERE f.id > :afterFeedbackId
+              AND f.analysis_status = 'ANALYZED'
+              AND NOT EXISTS (SELECT 1 FROM {h-schema}sheets_outbox o WHERE o.feedback_id = f.id)
+            ORDER BY f.id
+            """)
+    int enqueueFeedbacksAfter(@Param("afterFeedbackId") long afterFeedbackId);
+}
@@ -0,0 +1,117 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Serialized admin query responses, keyed by normalized query parameters and tagged with the
+ * FeedbackVersion they were computed at. An entry is served only while the version is unchanged and
+ * it is younger than the TTL; the TTL bounds how long changes written by other instances can go unseen.
+ */
+@Service
+public class AdminResponseCache {
+
+    /*
+     * body is null for an empty result; nextCursor is set when the result was cut short.
+     */
+    public record CachedResponse(long version, byte[] body, long createdAtMillis, String nextCursor) {
+    }
+
+    /*
+     * A loader result that is only the first part of the matching rows; the rest starts at nextCursor.
+     */
+    public record Truncated(Object body, String nextCursor) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMs;
+
+    // access-ordered LRU, guarded by "this"
+    private final LinkedHashMap<String, CachedResponse> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AdminResponseCache(ObjectMapper objectMapper,
+                              @Value("${admin.cache.enabled:true}") boolean enabled,
+                              @Value("${admin.cache.max-entries:200}") int maxEntries,
+                              @Value("${admin.cache.ttl-ms:60000}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > AdminResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    /*
+     * Returns the cached response for key at the given version, or runs the loader and caches its result.
+     * The caller reads the version before the query, so a change committed during the query leaves an entry
+     * tagged with the older version, which is never served.
+     */
+    public CachedResponse get(String key, long version, Supplier<Object> loader) {
+        if (enabled) {
+            synchronized (this) {
+                CachedResponse cached = entries.get(key);
+                if (cached != null && cached.version() == version
+                        && System.currentTimeMillis() - cached.createdAtMillis() < ttlMs) {
+                    hits.incrementAndGet();
+                    return cached;
+                }
+            }
+        }
+        misses.incrementAndGet();
+        Object result = loader.get();
+        String nextCursor = null;
+        if (result instanceof Truncated truncated) {
+            result = truncated.body();
+            nextCursor = truncated.nextCursor();
+        }
+        CachedResponse response;
+        try {
+            response = new CachedResponse(version, result != null ? objectMapper.writeValueAsBytes(result) : null,
+                    System.currentTimeMillis(), nextCursor);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (enabled) {
+            synchronized (this) {
+                entries.put(key, response);
+            }
+        }
+        return response;
+    }
+
+    /*
+     * Number of the current TTL window; part of the ETag, so a revalidation also expires with the TTL.
+     */
+    public long currentWindow() {
+        return System.currentTimeMillis() / Math.max(1, ttlMs);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
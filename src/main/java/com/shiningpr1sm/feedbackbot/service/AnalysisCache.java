@@ -0,0 +1,195 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.AnalysisCacheEntry;
+import com.shiningpr1sm.feedbackbot.repository.AnalysisCacheRepository;
+import com.shiningpr1sm.feedbackbot.service.OpenAIService.AnalysisResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/*
+ * Content-addressed cache of AnalysisResult, consulted before OpenAIService goes to the network.
+ * The key is a hash of the prompt version and the message with case, whitespace and punctuation folded,
+ * so a prompt or model change makes all older entries unreachable.
+ * Tier 1 is an in-memory LRU with TTL; tier 2 (optional) is the analysis_cache table, written by upsert
+ * (a re-put refreshes the TTL) and purged of expired rows on a schedule.
+ */
+@Service
+public class AnalysisCache {
+
+    private static final Pattern PUNCTUATION = Pattern.compile("[\\p{P}\\p{S}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AnalysisCacheRepository analysisCacheRepository;
+    private final boolean enabled;
+    private final boolean dbEnabled;
+    private final int maxSize;
+    private final Duration ttl;
+
+    // access-ordered LRU, guarded by "this"
+    private final LinkedHashMap<String, CachedResult> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public AnalysisCache(AnalysisCacheRepository analysisCacheRepository,
+                         @Value("${openai.cache.enabled:true}") boolean enabled,
+                         @Value("${openai.cache.db-enabled:false}") boolean dbEnabled,
+                         @Value("${openai.cache.max-size:5000}") int maxSize,
+                         @Value("${openai.cache.ttl-hours:24}") long ttlHours) {
+        this.analysisCacheRepository = analysisCacheRepository;
+        this.enabled = enabled;
+        this.dbEnabled = dbEnabled;
+        this.maxSize = maxSize;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > AnalysisCache.this.maxSize;
+            }
+        };
+    }
+
+    public Optional<AnalysisResult> get(String promptVersion, String feedbackText) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = cacheKey(promptVersion, feedbackText);
+        synchronized (this) {
+            CachedResult cached = memory.get(key);
+            if (cached != null) {
+                if (!cached.isExpired()) {
+                    memoryHits.incrementAndGet();
+                    return Optional.of(cached.result);
+                }
+                memory.remove(key);
+            }
+        }
+        if (dbEnabled) {
+            Optional<AnalysisCacheEntry> stored = analysisCacheRepository.findById(key)
+                    .filter(entry -> entry.getCreatedAt().plus(ttl).isAfter(LocalDateTime.now()));
+            if (stored.isPresent()) {
+                AnalysisResult result = AnalysisResult.builder()
+                        .sentiment(stored.get().getSentiment())
+                        .criticalityLevel(stored.get().getCriticalityLevel())
+                        .resolutionSuggestion(stored.get().getResolutionSuggestion())
+                        .build();
+                synchronized (this) {
+                    memory.put(key, new CachedResult(result));
+                }
+                dbHits.incrementAndGet();
+                return Optional.of(result);
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public void put(String promptVersion, String feedbackText, AnalysisResult result) {
+        if (!enabled) {
+            return;
+        }
+        String key = cacheKey(promptVersion, feedbackText);
+        synchronized (this) {
+            memory.put(key, new CachedResult(result));
+        }
+        if (dbEnabled) {
+            // called from the WebClient response thread, so the JPA write is moved off it
+            Mono.fromRunnable(() -> analysisCacheRepository.upsert(key, promptVersion, result.getSentiment().name(),
+                            result.getCriticalityLevel(), result.getResolutionSuggestion(), LocalDateTime.now()))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe(null, e -> System.err.println("Error storing analysis cache entry: " + e.getMessage()));
+        }
+    }
+
+    /*
+     * Drops the whole memory tier and every stored entry that was produced by another prompt version.
+     */
+    public long invalidate(String currentPromptVersion) {
+        synchronized (this) {
+            memory.clear();
+        }
+        return dbEnabled ? analysisCacheRepository.deleteByPromptVersionNot(currentPromptVersion) : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${openai.cache.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!enabled || !dbEnabled) {
+            return;
+        }
+        try {
+            int purged = analysisCacheRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+            if (purged > 0) {
+                System.out.println("Purged " + purged + " expired analysis cache entries");
+            }
+        } catch (DataAccessException e) {
+            System.err.println("Could not purge the analysis cache: " + e.getMessage());
+        }
+    }
+
+    public synchronized int size() {
+        return memory.size();
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDbHits() {
+        return dbHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    static String normalize(String feedbackText) {
+        String normalized = Normalizer.normalize(feedbackText, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        normalized = PUNCTUATION.matcher(normalized).replaceAll(" ");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    static String cacheKey(String promptVersion, String feedbackText) {
+        return sha256(promptVersion + "\n" + normalize(feedbackText));
+    }
+
+    static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private final class CachedResult {
+        private final AnalysisResult result;
+        private final long createdAt = System.currentTimeMillis();
+
+        private CachedResult(AnalysisResult result) {
+            this.result = result;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - createdAt > ttl.toMillis();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Dedicated executor for the feedback analysis stage (OpenAI call, DB save, Sheets export).
+ * Every task runs on its own virtual thread, so a slow OpenAI call never pins a platform thread;
+ * at most "concurrency" tasks run at once and at most "queue-capacity" more wait for a slot.
+ * Anything beyond that is rejected at admission with RejectedExecutionException.
+ */
+@Service
+public class AnalysisExecutor {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("feedback-analysis-", 0).factory());
+    private final int concurrency;
+    private final int queueCapacity;
+    private final Semaphore admission;
+    private final Semaphore running;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AnalysisExecutor(@Value("${analysis.executor.concurrency:16}") int concurrency,
+                            @Value("${analysis.executor.queue-capacity:500}") int queueCapacity) {
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.admission = new Semaphore(concurrency + queueCapacity);
+        this.running = new Semaphore(concurrency);
+    }
+
+    public CompletableFuture<Void> submit(Runnable task) {
+        if (!admission.tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Analysis queue is full");
+        }
+        accepted.incrementAndGet();
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    running.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    admission.release();
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    running.release();
+                    admission.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            admission.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return concurrency - running.availablePermits();
+    }
+
+    public int getQueuedCount() {
+        return Math.max(0, (concurrency + queueCapacity - admission.availablePermits()) - getActiveCount());
+    }
+
+    public int getFreeCapacity() {
+        return admission.availablePermits();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
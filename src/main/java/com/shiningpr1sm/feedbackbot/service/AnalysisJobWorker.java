@@ -0,0 +1,236 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.AnalysisJob;
+import com.shiningpr1sm.feedbackbot.model.AnalysisStatus;
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import com.shiningpr1sm.feedbackbot.repository.AnalysisJobRepository;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackRepository;
+import com.shiningpr1sm.feedbackbot.service.OpenAIService.AnalysisResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/*
+ * Runs analysis_jobs on the AnalysisExecutor. Jobs are claimed in batches with SELECT ... FOR UPDATE SKIP LOCKED
+ * and a lease, so several bot instances can share the queue, and a job whose worker died is picked up again
+ * once its lease expires. Jobs created on this node are also claimed right away to avoid the polling delay.
+ */
+@Service
+public class AnalysisJobWorker {
+
+    private final AnalysisJobRepository analysisJobRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final FeedbackPersistenceService feedbackPersistenceService;
+    private final OpenAIService openAIService;
+    private final AnalysisExecutor analysisExecutor;
+    private final AbsSender telegramSender;
+    private final FeedbackTracer feedbackTracer;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final int batchSize;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final MeterRegistry meterRegistry;
+    private final Timer completeTimer;
+    private final Timer failTimer;
+
+    public AnalysisJobWorker(AnalysisJobRepository analysisJobRepository,
+                             FeedbackRepository feedbackRepository,
+                             FeedbackPersistenceService feedbackPersistenceService,
+                             OpenAIService openAIService,
+                             AnalysisExecutor analysisExecutor,
+                             AbsSender telegramSender,
+                             FeedbackTracer feedbackTracer,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${analysis.worker.node-id:#{T(java.util.UUID).randomUUID().toString()}}") String nodeId,
+                             @Value("${analysis.worker.batch-size:20}") int batchSize,
+                             @Value("${analysis.worker.lease-seconds:300}") long leaseSeconds,
+                             @Value("${analysis.worker.max-attempts:5}") int maxAttempts,
+                             MeterRegistry meterRegistry) {
+        this.analysisJobRepository = analysisJobRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.feedbackPersistenceService = feedbackPersistenceService;
+        this.openAIService = openAIService;
+        this.analysisExecutor = analysisExecutor;
+        this.telegramSender = telegramSender;
+        this.feedbackTracer = feedbackTracer;
+        this.transactionTemplate = transactionTemplate;
+        this.nodeId = nodeId;
+        this.batchSize = batchSize;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.maxAttempts = maxAttempts;
+        this.meterRegistry = meterRegistry;
+        this.completeTimer = Timer.builder("feedbackbot.db.save").tag("operation", "complete_analysis").register(meterRegistry);
+        this.failTimer = Timer.builder("feedbackbot.db.save").tag("operation", "fail_analysis").register(meterRegistry);
+    }
+
+    /*
+     * Fast path for a job that was just created on this node. Returns false if the local executor is full;
+     * the job then stays in the queue and is picked up by the next poll here or on another instance.
+     */
+    public boolean dispatchNow(AnalysisJob job) {
+        LocalDateTime now = LocalDateTime.now();
+        if (analysisJobRepository.claimById(job.getId(), nodeId, now, now.plus(lease)) == 0) {
+            return true;
+        }
+        job.setAttempts(job.getAttempts() + 1);
+        return submit(job);
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.worker.poll-interval-ms:1000}")
+    public void poll() {
+        int limit = Math.min(batchSize, analysisExecutor.getFreeCapacity());
+        if (limit <= 0) {
+            return;
+        }
+        List<AnalysisJob> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<AnalysisJob> locked = analysisJobRepository.lockNextBatch(now, limit);
+            for (AnalysisJob job : locked) {
+                job.setLockedBy(nodeId);
+                job.setLockedUntil(now.plus(lease));
+                job.setAttempts(job.getAttempts() + 1);
+            }
+            return locked;
+        });
+        if (claimed == null) {
+            return;
+        }
+        for (int i = 0; i < claimed.size(); i++) {
+            if (!submit(claimed.get(i))) {
+                // executor filled up meanwhile: hand the rest back right away instead of waiting for the lease
+                for (AnalysisJob rest : claimed.subList(i + 1, claimed.size())) {
+                    analysisJobRepository.unclaim(rest.getId());
+                }
+                break;
+            }
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getBacklogSize() {
+        return analysisJobRepository.count();
+    }
+
+    public Duration getOldestJobAge() {
+        return analysisJobRepository.findFirstByOrderByIdAsc()
+                .map(job -> Duration.between(job.getCreatedAt(), LocalDateTime.now()))
+                .orElse(Duration.ZERO);
+    }
+
+    private boolean submit(AnalysisJob job) {
+        try {
+            analysisExecutor.submit(() -> process(job));
+            return true;
+        } catch (RejectedExecutionException e) {
+            analysisJobRepository.unclaim(job.getId());
+            return false;
+        }
+    }
+
+    /*
+     * Continues the feedback's trace from the job's traceparent, also when the job was created on another instance.
+     */
+    private void process(AnalysisJob job) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Span span = feedbackTracer.startSpan("feedback.analysis", job.getTraceParent())
+                .tag("feedback.id", String.valueOf(job.getFeedbackId()))
+                .tag("attempt", String.valueOf(job.getAttempts()));
+        String outcome = "error";
+        try (Tracer.SpanInScope ignored = feedbackTracer.withSpan(span)) {
+            outcome = analyze(job);
+        } finally {
+            span.tag("outcome", outcome);
+            span.end();
+            sample.stop(meterRegistry.timer("feedbackbot.analysis.job", "outcome", outcome));
+        }
+    }
+
+    private String analyze(AnalysisJob job) {
+        Optional<Feedback> pending = feedbackRepository.findById(job.getFeedbackId())
+                .filter(feedback -> feedback.getAnalysisStatus() == AnalysisStatus.PENDING);
+        if (pending.isEmpty()) {
+            analysisJobRepository.deleteById(job.getId());
+            return "skipped";
+        }
+        Feedback feedback = pending.get();
+        try {
+            AnalysisResult analysisResult = feedbackTracer.inSpan("openai.analyze",
+                    () -> openAIService.analyzeFeedback(feedback.getMessage()).block());
+            if (analysisResult == null) {
+                throw new IllegalStateException("OpenAI analysis returned no result");
+            }
+            Optional<Feedback> completed = completeTimer.record(() -> feedbackTracer.inSpan("db.complete-analysis",
+                    () -> feedbackPersistenceService.completeAnalysis(job.getId(), feedback.getId(), analysisResult)));
+            completed.ifPresent(this::sendResult);
+            return completed.isPresent() ? "analyzed" : "skipped";
+        } catch (RuntimeException ex) {
+            System.err.println(feedbackTracer.logPrefix() + "Unexpected error during analysis of feedback " + feedback.getId()
+                    + " (attempt " + job.getAttempts() + "): " + ex.getMessage());
+            if (job.getAttempts() >= maxAttempts) {
+                failTimer.record(() -> {
+                    feedbackTracer.inSpan("db.fail-analysis", () -> {
+                        feedbackPersistenceService.failAnalysis(job.getId(), feedback.getId());
+                        return null;
+                    });
+                });
+                sendText(feedback.getChatId(), "Виникла неочікувана помилка під час аналізу відгуку. Спробуйте пізніше.");
+                return "failed";
+            }
+            analysisJobRepository.reschedule(job.getId(),
+                    LocalDateTime.now().plusSeconds(30L * job.getAttempts()));
+            return "rescheduled";
+        }
+    }
+
+    private void sendResult(Feedback feedback) {
+        sendText(feedback.getChatId(), "Ваш відгук проаналізовано та збережено:\n" +
+                "Настрій: " + getSentimentText(feedback.getSentiment()) + "\n" +
+                "Критичність: " + feedback.getCriticalityLevel() + " (з 5)\n" +
+                "Можливе вирішення: " + feedback.getResolutionSuggestion());
+        System.out.println(feedbackTracer.logPrefix() + "Feedback processed, saved to DB and queued for Google Sheet: " + feedback.getId());
+    }
+
+    private void sendText(Long chatId, String text) {
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId.toString());
+        message.setText(text);
+        try {
+            feedbackTracer.inSpan("telegram.send-result", () -> telegramSender.execute(message));
+        } catch (TelegramApiException e) {
+            meterRegistry.counter("feedbackbot.telegram.send.errors").increment();
+            System.err.println(feedbackTracer.logPrefix() + "Error sending analysis result to user: " + e.getMessage());
+        }
+    }
+
+    private String getSentimentText(FeedbackSentiment sentiment) {
+        if (Objects.nonNull(sentiment)) {
+            switch (sentiment) {
+                case POSITIVE: return "Позитивний";
+                case NEUTRAL: return "Нейтральний";
+                case NEGATIVE: return "Негативний";
+                default: return "Невідомий";
+            }
+        }
+        return "Невідомий";
+    }
+}
@@ -0,0 +1,242 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.repository.ClusterLease;
+import com.shiningpr1sm.feedbackbot.repository.ClusterNode;
+import com.shiningpr1sm.feedbackbot.repository.ClusterRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Membership and singleton roles of a multi-instance deployment (cluster.enabled=true), coordinated through Postgres.
+ *
+ * Every node heartbeats its cluster_nodes row. The live nodes partition the chats by rendezvous hashing of the
+ * chatId, so a node joining or leaving only moves the chats it gains or loses, and all updates of a chat are
+ * handled on its owner. Telegram ingestion and the Sheets relay run on the holder of their lease in cluster_leases;
+ * a holder that stops renewing (crash, network split, long pause) loses the role after lease-ttl-ms and another
+ * node takes it over on its next heartbeat. A node stops acting on a lease as soon as it cannot prove it still
+ * holds it, i.e. before the database lets anyone else take it.
+ *
+ * Heartbeats run on their own thread, so a slow task on the shared scheduler thread cannot delay a renewal.
+ * With clustering disabled this node is the whole cluster and holds every role.
+ */
+@Service
+public class ClusterCoordinator {
+
+    public static final String INGESTION_LEASE = "telegram-ingestion";
+    public static final String SHEETS_RELAY_LEASE = "sheets-relay";
+    private static final List<String> LEASES = List.of(INGESTION_LEASE, SHEETS_RELAY_LEASE);
+
+    private final ClusterRepository clusterRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String nodeId;
+    private final String advertisedUrl;
+    private final long heartbeatIntervalMs;
+    private final long nodeTtlMs;
+    private final long leaseTtlMs;
+
+    private volatile List<ClusterNode> liveNodes = List.of();
+    // lease name -> System.nanoTime() until which the lease is certainly still ours
+    private final Map<String, Long> heldLeases = new ConcurrentHashMap<>();
+    private ScheduledExecutorService heartbeatExecutor;
+
+    public ClusterCoordinator(ClusterRepository clusterRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              AnalysisJobWorker analysisJobWorker,
+                              @Value("${cluster.enabled:false}") boolean enabled,
+                              @Value("${cluster.advertised-url:http://localhost:8080}") String advertisedUrl,
+                              @Value("${cluster.heartbeat-interval-ms:2000}") long heartbeatIntervalMs,
+                              @Value("${cluster.node-ttl-ms:10000}") long nodeTtlMs,
+                              @Value("${cluster.lease-ttl-ms:10000}") long leaseTtlMs,
+                              MeterRegistry meterRegistry) {
+        this.clusterRepository = clusterRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        // same id as the analysis_jobs leases, so both views of a node line up
+        this.nodeId = analysisJobWorker.getNodeId();
+        this.advertisedUrl = advertisedUrl;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.nodeTtlMs = nodeTtlMs;
+        this.leaseTtlMs = leaseTtlMs;
+        Gauge.builder("feedbackbot.cluster.nodes", this, coordinator -> coordinator.getLiveNodes().size())
+                .description("Live nodes sharing the chats")
+                .register(meterRegistry);
+        for (String lease : LEASES) {
+            Gauge.builder("feedbackbot.cluster.lease.held", this, coordinator -> coordinator.holdsLease(lease) ? 1 : 0)
+                    .tag("lease", lease)
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * Hands the roles over right away instead of letting them expire.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        heartbeatExecutor.shutdownNow();
+        try {
+            for (String lease : heldLeases.keySet()) {
+                releaseLease(lease);
+            }
+            clusterRepository.removeNode(nodeId);
+        } catch (DataAccessException e) {
+            System.err.println("Could not leave the cluster cleanly, roles move after the lease expires: " + e.getMessage());
+        }
+    }
+
+    void heartbeat() {
+        try {
+            clusterRepository.heartbeat(nodeId, advertisedUrl);
+            for (String lease : LEASES) {
+                renew(lease);
+            }
+            List<ClusterNode> nodes = clusterRepository.findLiveNodes(nodeTtlMs);
+            if (!nodes.equals(liveNodes)) {
+                liveNodes = nodes;
+                System.out.println("Cluster topology: " + nodes.stream().map(ClusterNode::nodeId).toList()
+                        + " (this node: " + nodeId + ")");
+                eventPublisher.publishEvent(new ClusterTopologyChangedEvent(nodes, nodeId));
+            }
+            clusterRepository.deleteNodesSilentFor(nodeTtlMs * 100);
+        } catch (DataAccessException e) {
+            System.err.println("Cluster heartbeat failed: " + e.getMessage());
+            // the leases cannot be renewed: give up the ones another node may already have taken
+            heldLeases.forEach((lease, validUntil) -> {
+                if (System.nanoTime() - validUntil >= 0) {
+                    lose(lease);
+                }
+            });
+        } catch (RuntimeException e) {
+            // keeps the heartbeat thread alive when a listener fails
+            System.err.println("Error in cluster heartbeat: " + e.getMessage());
+        }
+    }
+
+    private void renew(String lease) {
+        long attemptedAt = System.nanoTime();
+        if (clusterRepository.tryAcquireLease(lease, nodeId, leaseTtlMs)) {
+            // the database counts the ttl from a later now(), so this deadline is on the safe side
+            boolean gained = heldLeases.put(lease, attemptedAt + TimeUnit.MILLISECONDS.toNanos(leaseTtlMs)) == null;
+            if (gained) {
+                System.out.println("Acquired cluster lease " + lease);
+                eventPublisher.publishEvent(new ClusterLeaseChangedEvent(lease, true));
+            }
+        } else if (heldLeases.containsKey(lease)) {
+            lose(lease);
+        }
+    }
+
+    private void lose(String lease) {
+        if (heldLeases.remove(lease) != null) {
+            System.out.println("Lost cluster lease " + lease);
+            eventPublisher.publishEvent(new ClusterLeaseChangedEvent(lease, false));
+        }
+    }
+
+    /*
+     * Gives up a role, e.g. when it could not be started here; any node (this one included) may take it next.
+     */
+    public void releaseLease(String lease) {
+        if (!enabled) {
+            return;
+        }
+        lose(lease);
+        clusterRepository.releaseLease(lease, nodeId);
+    }
+
+    public boolean holdsLease(String lease) {
+        if (!enabled) {
+            return true;
+        }
+        Long validUntil = heldLeases.get(lease);
+        return validUntil != null && System.nanoTime() - validUntil < 0;
+    }
+
+    /*
+     * Node that handles the chat's updates; null when clustering is off or no node is known yet (handle locally).
+     */
+    public ClusterNode ownerOf(long chatId) {
+        return enabled ? ownerOf(chatId, liveNodes) : null;
+    }
+
+    public boolean isLocal(long chatId) {
+        ClusterNode owner = ownerOf(chatId);
+        return owner == null || owner.nodeId().equals(nodeId);
+    }
+
+    /*
+     * Rendezvous (highest random weight) hashing: the chat belongs to the node with the highest weight for it.
+     */
+    static ClusterNode ownerOf(long chatId, List<ClusterNode> nodes) {
+        ClusterNode owner = null;
+        long ownerWeight = 0;
+        for (ClusterNode node : nodes) {
+            long weight = weight(chatId, node.nodeId());
+            if (owner == null || weight > ownerWeight) {
+                owner = node;
+                ownerWeight = weight;
+            }
+        }
+        return owner;
+    }
+
+    private static long weight(long chatId, String nodeId) {
+        // murmur3 fmix64 over the chat and node ids
+        long h = chatId * 0x9E3779B97F4A7C15L + nodeId.hashCode();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93a4d7fa3d5L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public List<ClusterNode> getLiveNodes() {
+        return liveNodes;
+    }
+
+    public List<String> getHeldLeases() {
+        return LEASES.stream().filter(this::holdsLease).toList();
+    }
+
+    public List<ClusterLease> getLeases() {
+        return enabled ? clusterRepository.findLeases() : List.of();
+    }
+}
@@ -0,0 +1,7 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+/*
+ * Published when this node gains or loses a singleton role (see ClusterCoordinator).
+ */
+public record ClusterLeaseChangedEvent(String lease, boolean held) {
+}
@@ -0,0 +1,16 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.repository.ClusterNode;
+
+import java.util.List;
+
+/*
+ * Published when the set of live nodes changes, i.e. when chats move between nodes.
+ */
+public record ClusterTopologyChangedEvent(List<ClusterNode> nodes, String localNodeId) {
+
+    public boolean isLocal(long chatId) {
+        ClusterNode owner = ClusterCoordinator.ownerOf(chatId, nodes);
+        return owner == null || owner.nodeId().equals(localNodeId);
+    }
+}
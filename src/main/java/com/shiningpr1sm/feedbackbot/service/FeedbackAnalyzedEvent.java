@@ -0,0 +1,10 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+
+/*
+ * Published inside the completeAnalysis transaction once a feedback is ANALYZED.
+ * Synchronous listeners run in that transaction; use @TransactionalEventListener for after-commit work.
+ */
+public record FeedbackAnalyzedEvent(Feedback feedback) {
+}
@@ -0,0 +1,7 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+/*
+ * Published inside every transaction that creates or updates a feedback row.
+ */
+public record FeedbackChangedEvent(Long feedbackId) {
+}
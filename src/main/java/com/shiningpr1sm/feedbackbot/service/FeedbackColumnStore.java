@@ -0,0 +1,349 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackDimensions;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/*
+ * In-memory columnar copy of the analyzed feedbacks' dimensions for interactive slicing.
+ *
+ * Rows live in fixed-size segments of primitive columns: role, sentiment and criticality as bytes,
+ * branch as an int code into a dictionary, submittedAt as epoch seconds (wall-clock time, like the entity),
+ * about 15 bytes per row. Queries scan the columns of all segments in parallel with precomputed bitmask
+ * predicates and aggregate into dense arrays indexed by the group key.
+ *
+ * A single writer appends under a lock and publishes rows by bumping the volatile size last, so readers
+ * scan a consistent prefix without locking. Loaded on startup by streaming from FeedbackRepository,
+ * then kept current from FeedbackAnalyzedEvent after commit; a bitmap of feedback ids drops duplicates
+ * between the two.
+ */
+@Service
+public class FeedbackColumnStore {
+
+    public enum Dimension {
+        ROLE,
+        SENTIMENT,
+        CRITICALITY,
+        BRANCH,
+        DAY
+    }
+
+    public record Group(String role,
+                        String sentiment,
+                        Integer criticality,
+                        String branch,
+                        LocalDate day,
+                        long count,
+                        Double averageCriticality) {
+    }
+
+    private static final int SEGMENT_SHIFT = 16;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int CRITICALITY_LEVELS = 6; // 0 = none, 1..5
+    private static final int MAX_GROUPS = 1 << 18;
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final EmployeeRole[] ROLES = EmployeeRole.values();
+    private static final FeedbackSentiment[] SENTIMENTS = FeedbackSentiment.values();
+
+    private static final class Segment {
+        final byte[] role = new byte[SEGMENT_SIZE];
+        final byte[] sentiment = new byte[SEGMENT_SIZE];
+        final byte[] criticality = new byte[SEGMENT_SIZE];
+        final int[] branch = new int[SEGMENT_SIZE];
+        final long[] submittedAt = new long[SEGMENT_SIZE];
+    }
+
+    private static final class Accumulator {
+        final long[] count;
+        final long[] criticalitySum;
+        final long[] criticalityCount;
+
+        Accumulator(int groups) {
+            count = new long[groups];
+            criticalitySum = new long[groups];
+            criticalityCount = new long[groups];
+        }
+
+        void merge(Accumulator other) {
+            for (int i = 0; i < count.length; i++) {
+                count[i] += other.count[i];
+                criticalitySum[i] += other.criticalitySum[i];
+                criticalityCount[i] += other.criticalityCount[i];
+            }
+        }
+    }
+
+    private final FeedbackRepository feedbackRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    private final Object writeLock = new Object();
+    private final BitSet loadedIds = new BitSet();
+    private final Map<String, Integer> branchCodes = new ConcurrentHashMap<>();
+
+    // written under writeLock before size, read after size
+    private volatile Segment[] segments = new Segment[0];
+    private volatile String[] branchNames = new String[0];
+    private volatile long minEpochDay = Long.MAX_VALUE;
+    private volatile long maxEpochDay = Long.MIN_VALUE;
+    private volatile int size;
+    private volatile boolean ready;
+
+    public FeedbackColumnStore(FeedbackRepository feedbackRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${analytics.columnar.enabled:true}") boolean enabled) {
+        this.feedbackRepository = feedbackRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        Thread.ofVirtual().name("column-store-loader").start(() -> {
+            long startedAt = System.currentTimeMillis();
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    try (Stream<FeedbackDimensions> rows = feedbackRepository.streamAnalyzedDimensions()) {
+                        rows.forEach(row -> append(row.id(), row.branch(), row.employeeRole(), row.sentiment(),
+                                row.criticalityLevel(), row.submittedAt()));
+                    }
+                });
+                ready = true;
+                System.out.println("Column store loaded " + size + " feedbacks in "
+                        + (System.currentTimeMillis() - startedAt) + " ms");
+            } catch (RuntimeException e) {
+                System.err.println("Column store load failed: " + e.getMessage());
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onFeedbackAnalyzed(FeedbackAnalyzedEvent event) {
+        Feedback feedback = event.feedback();
+        if (!enabled || feedback.getSentiment() == null) {
+            return;
+        }
+        append(feedback.getId(), feedback.getBranch(), feedback.getEmployeeRole(), feedback.getSentiment(),
+                feedback.getCriticalityLevel(), feedback.getSubmittedAt());
+    }
+
+    private void append(Long id, String branch, EmployeeRole role, FeedbackSentiment sentiment,
+                        Integer criticality, LocalDateTime submittedAt) {
+        if (sentiment == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            int idIndex = Math.toIntExact(id);
+            if (loadedIds.get(idIndex)) {
+                return;
+            }
+            loadedIds.set(idIndex);
+
+            int row = size;
+            Segment[] current = segments;
+            int segmentIndex = row >>> SEGMENT_SHIFT;
+            if (segmentIndex == current.length) {
+                current = Arrays.copyOf(current, current.length + 1);
+                current[segmentIndex] = new Segment();
+                segments = current;
+            }
+            Segment segment = current[segmentIndex];
+            int offset = row & (SEGMENT_SIZE - 1);
+
+            long epochSecond = submittedAt.toEpochSecond(ZoneOffset.UTC);
+            long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+            segment.role[offset] = (byte) role.ordinal();
+            segment.sentiment[offset] = (byte) sentiment.ordinal();
+            // out-of-range model output is clamped into the 0..5 column domain
+            segment.criticality[offset] = (byte) (criticality != null ? Math.max(0, Math.min(5, criticality)) : 0);
+            segment.branch[offset] = branchCode(branch);
+            segment.submittedAt[offset] = epochSecond;
+            if (epochDay < minEpochDay) {
+                minEpochDay = epochDay;
+            }
+            if (epochDay > maxEpochDay) {
+                maxEpochDay = epochDay;
+            }
+            size = row + 1;
+        }
+    }
+
+    private int branchCode(String branch) {
+        Integer code = branchCodes.get(branch);
+        if (code != null) {
+            return code;
+        }
+        String[] names = Arrays.copyOf(branchNames, branchNames.length + 1);
+        names[names.length - 1] = branch;
+        branchNames = names;
+        branchCodes.put(branch, names.length - 1);
+        return names.length - 1;
+    }
+
+    /*
+     * Counts and average criticality of the rows matching the filters (null = any; "to" exclusive),
+     * grouped by the given dimensions. Throws IllegalArgumentException when the grouping would produce
+     * more than MAX_GROUPS potential groups (e.g. DAY x BRANCH over years); narrow the range then.
+     */
+    public List<Group> query(String branch, EmployeeRole role, FeedbackSentiment sentiment, Integer criticality,
+                             LocalDateTime from, LocalDateTime to, List<Dimension> groupBy) {
+        int rows = size;
+        Segment[] segmentSnapshot = segments;
+        String[] names = branchNames;
+        long minDay = minEpochDay;
+        long maxDay = maxEpochDay;
+        if (rows == 0) {
+            return List.of();
+        }
+
+        int branchFilter = -1;
+        if (branch != null) {
+            Integer code = branchCodes.get(branch);
+            if (code == null || code >= names.length) {
+                return List.of();
+            }
+            branchFilter = code;
+        }
+        long roleMask = role != null ? 1L << role.ordinal() : -1L;
+        long sentimentMask = sentiment != null ? 1L << sentiment.ordinal() : -1L;
+        long criticalityMask = criticality != null ? 1L << criticality : -1L;
+        long fromSecond = from != null ? from.toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        long toSecond = to != null ? to.toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+        // the DAY dimension only spans the days both in the store and in [from, to)
+        if (from != null) {
+            minDay = Math.max(minDay, Math.floorDiv(fromSecond, SECONDS_PER_DAY));
+        }
+        if (to != null) {
+            maxDay = Math.min(maxDay, Math.floorDiv(toSecond - 1, SECONDS_PER_DAY));
+        }
+        if (minDay > maxDay) {
+            return List.of();
+        }
+
+        // group key = sum(code * stride) over the grouped dimensions; other dimensions get stride 0
+        int[] radix = {ROLES.length, SENTIMENTS.length, CRITICALITY_LEVELS, Math.max(1, names.length),
+                (int) Math.min(Integer.MAX_VALUE, maxDay - minDay + 1)};
+        int[] stride = new int[radix.length];
+        long groups = 1;
+        for (Dimension dimension : Dimension.values()) {
+            if (groupBy.contains(dimension)) {
+                stride[dimension.ordinal()] = (int) groups;
+                groups *= radix[dimension.ordinal()];
+                if (groups > MAX_GROUPS) {
+                    throw new IllegalArgumentException("Too many groups for " + groupBy + "; narrow the filters");
+                }
+            }
+        }
+
+        int groupCount = (int) groups;
+        int segmentCount = ((rows - 1) >>> SEGMENT_SHIFT) + 1;
+        int finalBranchFilter = branchFilter;
+        Accumulator total = IntStream.range(0, segmentCount).parallel().collect(
+                () -> new Accumulator(groupCount),
+                (accumulator, segmentIndex) -> scan(accumulator, segmentSnapshot[segmentIndex],
+                        Math.min(SEGMENT_SIZE, rows - (segmentIndex << SEGMENT_SHIFT)),
+                        finalBranchFilter, roleMask, sentimentMask, criticalityMask, fromSecond, toSecond, minDay, stride),
+                Accumulator::merge);
+
+        List<Group> result = new ArrayList<>();
+        for (int key = 0; key < groupCount; key++) {
+            if (total.count[key] == 0) {
+                continue;
+            }
+            result.add(new Group(
+                    groupBy.contains(Dimension.ROLE) ? ROLES[code(key, Dimension.ROLE, stride, radix)].name() : null,
+                    groupBy.contains(Dimension.SENTIMENT) ? SENTIMENTS[code(key, Dimension.SENTIMENT, stride, radix)].name() : null,
+                    groupBy.contains(Dimension.CRITICALITY) ? code(key, Dimension.CRITICALITY, stride, radix) : null,
+                    groupBy.contains(Dimension.BRANCH) ? names[code(key, Dimension.BRANCH, stride, radix)] : null,
+                    groupBy.contains(Dimension.DAY) ? LocalDate.ofEpochDay(minDay + code(key, Dimension.DAY, stride, radix)) : null,
+                    total.count[key],
+                    total.criticalityCount[key] > 0 ? (double) total.criticalitySum[key] / total.criticalityCount[key] : null));
+        }
+        return result;
+    }
+
+    private static void scan(Accumulator accumulator, Segment segment, int rows, int branchFilter,
+                             long roleMask, long sentimentMask, long criticalityMask,
+                             long fromSecond, long toSecond, long minDay, int[] stride) {
+        byte[] roleColumn = segment.role;
+        byte[] sentimentColumn = segment.sentiment;
+        byte[] criticalityColumn = segment.criticality;
+        int[] branchColumn = segment.branch;
+        long[] submittedAtColumn = segment.submittedAt;
+        int roleStride = stride[Dimension.ROLE.ordinal()];
+        int sentimentStride = stride[Dimension.SENTIMENT.ordinal()];
+        int criticalityStride = stride[Dimension.CRITICALITY.ordinal()];
+        int branchStride = stride[Dimension.BRANCH.ordinal()];
+        int dayStride = stride[Dimension.DAY.ordinal()];
+
+        for (int i = 0; i < rows; i++) {
+            int roleCode = roleColumn[i];
+            int sentimentCode = sentimentColumn[i];
+            int criticalityCode = criticalityColumn[i];
+            int branchCode = branchColumn[i];
+            long submittedAt = submittedAtColumn[i];
+            if (((roleMask >>> roleCode) & 1) == 0
+                    || ((sentimentMask >>> sentimentCode) & 1) == 0
+                    || ((criticalityMask >>> criticalityCode) & 1) == 0
+                    || (branchFilter >= 0 && branchCode != branchFilter)
+                    || submittedAt < fromSecond || submittedAt >= toSecond) {
+                continue;
+            }
+            int key = roleCode * roleStride + sentimentCode * sentimentStride + criticalityCode * criticalityStride
+                    + branchCode * branchStride;
+            if (dayStride != 0) {
+                key += (int) (Math.floorDiv(submittedAt, SECONDS_PER_DAY) - minDay) * dayStride;
+            }
+            accumulator.count[key]++;
+            if (criticalityCode > 0) {
+                accumulator.criticalitySum[key] += criticalityCode;
+                accumulator.criticalityCount[key]++;
+            }
+        }
+    }
+
+    private static int code(int key, Dimension dimension, int[] stride, int[] radix) {
+        return key / stride[dimension.ordinal()] % radix[dimension.ordinal()];
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getRowCount() {
+        return size;
+    }
+
+    public long getColumnBytes() {
+        return (long) segments.length * SEGMENT_SIZE * (3 * Byte.BYTES + Integer.BYTES + Long.BYTES);
+    }
+
+    public int getBranchCount() {
+        return branchNames.length;
+    }
+}
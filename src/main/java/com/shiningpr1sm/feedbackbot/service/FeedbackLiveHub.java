@@ -0,0 +1,221 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Fan-out of newly analyzed feedbacks to the admin dashboards over Server-Sent Events.
+ *
+ * Each subscriber has a bounded queue drained by its own virtual thread, so one slow connection never
+ * delays the others: when its queue is full the subscriber is dropped and its browser reconnects with
+ * Last-Event-ID. The last replay-capacity events stay in a ring buffer to resume from; a subscriber whose
+ * Last-Event-ID is older than the buffer gets a "reset" event and should reload the list.
+ * Event ids are a per-instance sequence.
+ *
+ * The hub is per instance: in cluster mode a dashboard only sees the feedbacks analyzed on the node it is
+ * connected to, since analysis jobs are claimed by all nodes. The list itself reads from the database and is
+ * complete; pin dashboards to one node (or run a single analyzing node) if the live feed has to be too.
+ */
+@Service
+public class FeedbackLiveHub {
+
+    public record Subscription(String branch, EmployeeRole role, Integer minCriticality) {
+
+        boolean matches(Feedback feedback) {
+            return (branch == null || branch.equals(feedback.getBranch()))
+                    && (role == null || role == feedback.getEmployeeRole())
+                    && (minCriticality == null
+                    || (feedback.getCriticalityLevel() != null && feedback.getCriticalityLevel() >= minCriticality));
+        }
+    }
+
+    private record LiveEvent(long id, Feedback feedback) {
+    }
+
+    // queue markers for the subscriber's sender thread
+    private static final LiveEvent HEARTBEAT = new LiveEvent(-1, null);
+    private static final LiveEvent RESET = new LiveEvent(-2, null);
+    private static final LiveEvent CLOSE = new LiveEvent(-3, null);
+
+    private final class Subscriber {
+        final Subscription subscription;
+        final SseEmitter emitter;
+        final BlockingQueue<LiveEvent> queue;
+
+        Subscriber(Subscription subscription, SseEmitter emitter) {
+            this.subscription = subscription;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(subscriberBufferSize + 2);
+        }
+
+        /*
+         * Queues an event; drops the subscriber when its buffer is full.
+         */
+        void offer(LiveEvent event) {
+            if (queue.remainingCapacity() <= 2 && event != CLOSE) {
+                droppedSubscribers.incrementAndGet();
+                close();
+                return;
+            }
+            queue.offer(event);
+        }
+
+        void close() {
+            if (subscribers.remove(this)) {
+                queue.clear();
+                queue.offer(CLOSE);
+            }
+        }
+
+        void run() {
+            try {
+                while (true) {
+                    LiveEvent event = queue.take();
+                    if (event == CLOSE) {
+                        emitter.complete();
+                        return;
+                    }
+                    if (event == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (event == RESET) {
+                        emitter.send(SseEmitter.event().name("reset").data(""));
+                    } else {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.id()))
+                                .name("feedback")
+                                .data(event.feedback(), MediaType.APPLICATION_JSON));
+                        sentEvents.incrementAndGet();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away
+                close();
+                emitter.completeWithError(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                emitter.complete();
+            }
+        }
+    }
+
+    private final int subscriberBufferSize;
+    private final int replayCapacity;
+    private final long emitterTimeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<LiveEvent> replayBuffer = new ArrayDeque<>();
+    private long lastEventId;
+
+    private final AtomicLong sentEvents = new AtomicLong();
+    private final AtomicLong droppedSubscribers = new AtomicLong();
+
+    public FeedbackLiveHub(@Value("${admin.live.subscriber-buffer-size:256}") int subscriberBufferSize,
+                           @Value("${admin.live.replay-capacity:1000}") int replayCapacity,
+                           @Value("${admin.live.emitter-timeout-ms:1800000}") long emitterTimeoutMs) {
+        this.subscriberBufferSize = Math.max(1, subscriberBufferSize);
+        this.replayCapacity = Math.max(1, replayCapacity);
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    /*
+     * Opens a stream. With lastEventId, first replays the buffered events after it.
+     */
+    public SseEmitter subscribe(Subscription subscription, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(subscription, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        // under the publish lock, so no event falls between the replay and the registration
+        synchronized (replayBuffer) {
+            if (lastEventId != null) {
+                LiveEvent oldest = replayBuffer.peekFirst();
+                long firstAvailable = oldest != null ? oldest.id() : lastEventId + 1;
+                if (lastEventId < firstAvailable - 1 || lastEventId > this.lastEventId) {
+                    // missed events are gone (or the id is from another instance / before a restart)
+                    subscriber.queue.offer(RESET);
+                } else {
+                    for (LiveEvent event : replayBuffer) {
+                        if (event.id() <= lastEventId || !subscription.matches(event.feedback())) {
+                            continue;
+                        }
+                        if (subscriber.queue.remainingCapacity() <= 2) {
+                            // more to replay than the buffer holds: a reload is cheaper
+                            subscriber.queue.clear();
+                            subscriber.queue.offer(RESET);
+                            break;
+                        }
+                        subscriber.queue.offer(event);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        Thread.ofVirtual().name("sse-subscriber").start(subscriber::run);
+        return emitter;
+    }
+
+    @TransactionalEventListener
+    public void onFeedbackAnalyzed(FeedbackAnalyzedEvent event) {
+        publish(event.feedback());
+    }
+
+    private void publish(Feedback feedback) {
+        synchronized (replayBuffer) {
+            LiveEvent event = new LiveEvent(++lastEventId, feedback);
+            replayBuffer.addLast(event);
+            if (replayBuffer.size() > replayCapacity) {
+                replayBuffer.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.subscription.matches(feedback)) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    /*
+     * Keeps idle connections open through proxies and detects closed ones.
+     */
+    @Scheduled(fixedDelayString = "${admin.live.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getSentEvents() {
+        return sentEvents.get();
+    }
+
+    public long getDroppedSubscribers() {
+        return droppedSubscribers.get();
+    }
+}
@@ -0,0 +1,90 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.AnalysisJob;
+import com.shiningpr1sm.feedbackbot.model.AnalysisStatus;
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import com.shiningpr1sm.feedbackbot.model.SheetsOutboxEntry;
+import com.shiningpr1sm.feedbackbot.repository.AnalysisJobRepository;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackRepository;
+import com.shiningpr1sm.feedbackbot.repository.SheetsOutboxRepository;
+import com.shiningpr1sm.feedbackbot.service.OpenAIService.AnalysisResult;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+public class FeedbackPersistenceService {
+
+    private final FeedbackRepository feedbackRepository;
+    private final SheetsOutboxRepository sheetsOutboxRepository;
+    private final AnalysisJobRepository analysisJobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FeedbackTracer feedbackTracer;
+
+    public FeedbackPersistenceService(FeedbackRepository feedbackRepository,
+                                      SheetsOutboxRepository sheetsOutboxRepository,
+                                      AnalysisJobRepository analysisJobRepository,
+                                      ApplicationEventPublisher eventPublisher,
+                                      FeedbackTracer feedbackTracer) {
+        this.feedbackRepository = feedbackRepository;
+        this.sheetsOutboxRepository = sheetsOutboxRepository;
+        this.analysisJobRepository = analysisJobRepository;
+        this.eventPublisher = eventPublisher;
+        this.feedbackTracer = feedbackTracer;
+    }
+
+    /*
+     * Stores the raw feedback as PENDING together with its analysis job, before any analysis happens,
+     * so a crash mid-analysis can no longer lose the message. The job carries the current trace.
+     */
+    @Transactional
+    public AnalysisJob createPending(Long chatId, EmployeeRole role, String branch, String message) {
+        Feedback feedback = Feedback.builder()
+                .chatId(chatId)
+                .employeeRole(role)
+                .branch(branch)
+                .message(message)
+                .trelloCardCreated(false)
+                .analysisStatus(AnalysisStatus.PENDING)
+                .build();
+        feedbackRepository.save(feedback);
+        eventPublisher.publishEvent(new FeedbackChangedEvent(feedback.getId()));
+        return analysisJobRepository.save(new AnalysisJob(feedback.getId(), feedbackTracer.currentTraceParent()));
+    }
+
+    /*
+     * Stores the analysis result, queues the Sheets export, removes the job and publishes
+     * FeedbackAnalyzedEvent (rollups etc.) in one transaction.
+     * Returns empty if the feedback was already completed by another worker (e.g. after a lease expired).
+     */
+    @Transactional
+    public Optional<Feedback> completeAnalysis(Long jobId, Long feedbackId, AnalysisResult analysisResult) {
+        analysisJobRepository.deleteById(jobId);
+        Optional<Feedback> locked = feedbackRepository.findByIdForUpdate(feedbackId)
+                .filter(feedback -> feedback.getAnalysisStatus() == AnalysisStatus.PENDING);
+        locked.ifPresent(feedback -> {
+            feedback.setSentiment(analysisResult.getSentiment());
+            feedback.setCriticalityLevel(analysisResult.getCriticalityLevel());
+            feedback.setResolutionSuggestion(analysisResult.getResolutionSuggestion());
+            feedback.setAnalysisStatus(AnalysisStatus.ANALYZED);
+            sheetsOutboxRepository.save(new SheetsOutboxEntry(feedback.getId(), feedbackTracer.currentTraceParent()));
+            eventPublisher.publishEvent(new FeedbackChangedEvent(feedback.getId()));
+            eventPublisher.publishEvent(new FeedbackAnalyzedEvent(feedback));
+        });
+        return locked;
+    }
+
+    @Transactional
+    public void failAnalysis(Long jobId, Long feedbackId) {
+        analysisJobRepository.deleteById(jobId);
+        feedbackRepository.findByIdForUpdate(feedbackId)
+                .filter(feedback -> feedback.getAnalysisStatus() == AnalysisStatus.PENDING)
+                .ifPresent(feedback -> {
+                    feedback.setAnalysisStatus(AnalysisStatus.FAILED);
+                    eventPublisher.publishEvent(new FeedbackChangedEvent(feedback.getId()));
+                });
+    }
+}
@@ -0,0 +1,139 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Keeps feedback_rollups in step with the analyzed feedbacks.
+ *
+ * Increments run inside the completeAnalysis transaction, so a bucket counts a feedback exactly when its
+ * ANALYZED status is committed. A rebuild recomputes everything from the feedbacks table in parallel id-range
+ * chunks; while it runs it holds an exclusive advisory lock that the increments try to take in shared mode.
+ * An increment that does not get the lock never waits for it (each waiting analysis would hold a pooled
+ * connection, and the rebuild chunks need connections too): it puts the feedback into feedback_rollup_backlog
+ * in the same transaction instead. The chunks skip backlogged feedbacks and the backlog is replayed once the
+ * chunks are done and again on a schedule, so no increment is lost or counted twice.
+ */
+@Service
+public class FeedbackRollupService {
+
+    private static final long ROLLUP_LOCK_KEY = 0x726f6c6c7570L; // "rollup"
+
+    private final FeedbackRollupRepository feedbackRollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate rebuildTransaction;
+    private final TransactionTemplate chunkTransaction;
+    private final TransactionTemplate replayTransaction;
+    private final int rebuildParallelism;
+    private final int rebuildChunkSize;
+
+    public FeedbackRollupService(FeedbackRollupRepository feedbackRollupRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${analytics.rollup.rebuild-parallelism:4}") int rebuildParallelism,
+                                 @Value("${analytics.rollup.rebuild-chunk-size:50000}") int rebuildChunkSize) {
+        this.feedbackRollupRepository = feedbackRollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.replayTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildParallelism = Math.max(1, rebuildParallelism);
+        this.rebuildChunkSize = Math.max(1, rebuildChunkSize);
+    }
+
+    @EventListener
+    public void onFeedbackAnalyzed(FeedbackAnalyzedEvent event) {
+        Feedback feedback = event.feedback();
+        if (feedback.getSentiment() == null) {
+            return;
+        }
+        if (!tryLockShared()) {
+            feedbackRollupRepository.addToBacklog(feedback.getId());
+            return;
+        }
+        feedbackRollupRepository.increment(feedback.getSubmittedAt().toLocalDate(), feedback.getBranch(),
+                feedback.getEmployeeRole(), feedback.getSentiment(), feedback.getCriticalityLevel());
+    }
+
+    /*
+     * Picks up feedbacks backlogged after the last rebuild had already replayed the backlog.
+     * Skipped while a rebuild runs; it replays the backlog itself.
+     */
+    @Scheduled(fixedDelayString = "${analytics.rollup.backlog-replay-interval-ms:60000}")
+    public void replayBacklog() {
+        try {
+            replayTransaction.executeWithoutResult(status -> {
+                if (tryLockShared()) {
+                    feedbackRollupRepository.replayBacklog();
+                }
+            });
+        } catch (DataAccessException e) {
+            System.err.println("Could not replay the rollup backlog: " + e.getMessage());
+        }
+    }
+
+    // held until the surrounding transaction ends
+    private boolean tryLockShared() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock_shared(?)",
+                Boolean.class, ROLLUP_LOCK_KEY));
+    }
+
+    /*
+     * Recomputes all rollups from the base table. Returns a summary of the run.
+     */
+    public Map<String, Object> rebuild() {
+        long startedAt = System.currentTimeMillis();
+        return rebuildTransaction.execute(status -> {
+            // held until this transaction ends; chunks run in their own transactions and connections
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, ROLLUP_LOCK_KEY);
+            chunkTransaction.executeWithoutResult(chunk -> feedbackRollupRepository.deleteAll());
+
+            long[] idRange = feedbackRollupRepository.findFeedbackIdRange();
+            List<Future<Integer>> chunks = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(rebuildParallelism)) {
+                for (long fromId = idRange[0]; fromId <= idRange[1]; fromId += rebuildChunkSize) {
+                    long chunkFrom = fromId;
+                    long chunkTo = Math.min(idRange[1], fromId + rebuildChunkSize - 1);
+                    chunks.add(executor.submit(() ->
+                            chunkTransaction.execute(chunk -> feedbackRollupRepository.addRange(chunkFrom, chunkTo))));
+                }
+                for (Future<Integer> chunk : chunks) {
+                    chunk.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Rollup rebuild interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Rollup rebuild failed, rollups are incomplete until the next rebuild", e.getCause());
+            }
+            // the feedbacks analyzed during the rebuild, which the chunks skipped
+            Integer replayed = chunkTransaction.execute(chunk -> feedbackRollupRepository.replayBacklog());
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("chunks", chunks.size());
+            summary.put("backlogBuckets", replayed);
+            summary.put("buckets", feedbackRollupRepository.countBuckets());
+            summary.put("millis", System.currentTimeMillis() - startedAt);
+            return summary;
+        });
+    }
+}
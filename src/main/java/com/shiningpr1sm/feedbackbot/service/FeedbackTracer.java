@@ -0,0 +1,116 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Stage spans of one feedback's trace. Within a thread the current span is the parent; across the
+ * analysis_jobs queue and the sheets_outbox the trace continues from the W3C traceparent stored with the row.
+ * The trace id doubles as the correlation id in the pipeline's log lines.
+ */
+@Service
+public class FeedbackTracer {
+
+    @FunctionalInterface
+    public interface Stage<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private static final String TRACE_PARENT = "traceparent";
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public FeedbackTracer(Tracer tracer, Propagator propagator) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    /*
+     * Runs the stage in a child span of the current span (a new trace when there is none).
+     */
+    public <T, E extends Exception> T inSpan(String name, Stage<T, E> stage) throws E {
+        Span span = tracer.nextSpan().name(name).start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return stage.run();
+        } catch (Exception e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /*
+     * Starts a span continuing the trace of traceParent, or a new trace when it is null.
+     * The caller puts it in scope with withSpan and ends it.
+     */
+    public Span startSpan(String name, String traceParent) {
+        if (traceParent == null) {
+            return tracer.nextSpan().name(name).start();
+        }
+        return propagator.extract(Map.of(TRACE_PARENT, traceParent), Map::get).name(name).start();
+    }
+
+    public Tracer.SpanInScope withSpan(Span span) {
+        return tracer.withSpan(span);
+    }
+
+    /*
+     * Records an already finished stage, e.g. a batched Sheets append shared by several feedbacks.
+     */
+    public void recordStage(String name, String traceParent, long startMillis, long endMillis, Throwable error) {
+        if (traceParent == null) {
+            return;
+        }
+        Span span = propagator.extract(Map.of(TRACE_PARENT, traceParent), Map::get)
+                .name(name)
+                .startTimestamp(startMillis, TimeUnit.MILLISECONDS)
+                .start();
+        if (error != null) {
+            span.error(error);
+        }
+        span.end(endMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * traceparent of the current span, stored with queued work; null outside a trace.
+     */
+    public String currentTraceParent() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>();
+        propagator.inject(span.context(), carrier, Map::put);
+        return carrier.get(TRACE_PARENT);
+    }
+
+    public Span currentSpan() {
+        return tracer.currentSpan();
+    }
+
+    /*
+     * Span to parent an OpenAI request on; a new trace when parent is null (e.g. a batch of several feedbacks).
+     */
+    Span nextSpan(Span parent, String name) {
+        return (parent != null ? tracer.nextSpan(parent) : tracer.nextSpan()).name(name).start();
+    }
+
+    /*
+     * "[traceId] " for log lines of the current trace, empty outside a trace.
+     */
+    public String logPrefix() {
+        return logPrefix(tracer.currentSpan());
+    }
+
+    public static String logPrefix(Span span) {
+        return span != null ? "[" + span.context().traceId() + "] " : "";
+    }
+}
@@ -0,0 +1,32 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Version of the feedback data as seen by this instance: increases after every committed feedback change.
+ * It starts at the startup time in milliseconds, so versions (and the ETags built from them) from before
+ * a restart are never reused.
+ */
+@Service
+public class FeedbackVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private volatile long lastModifiedMillis = System.currentTimeMillis();
+
+    @TransactionalEventListener
+    public void onFeedbackChanged(FeedbackChangedEvent event) {
+        lastModifiedMillis = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    public long getLastModifiedMillis() {
+        return lastModifiedMillis;
+    }
+}
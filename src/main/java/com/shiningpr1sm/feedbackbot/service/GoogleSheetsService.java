@@ -2,6 +2,7 @@ package com.shiningpr1sm.feedbackbot.service;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleCredential;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
@@ -9,18 +10,30 @@ import com.google.api.services.sheets.v4.Sheets;
 import com.google.api.services.sheets.v4.SheetsScopes;
 import com.google.api.services.sheets.v4.model.ValueRange;
 import com.shiningpr1sm.feedbackbot.model.Feedback;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class GoogleSheetsService {
@@ -31,6 +44,9 @@ public class GoogleSheetsService {
     private String spreadsheetId;
     @Value("${google.sheets.credentials-path}")
     private String credentialsPath;
+    // empty = the public Sheets API; a local URL (e.g. the load-test stand-in) is called without credentials
+    @Value("${google.sheets.root-url:}")
+    private String rootUrl;
 
     private Sheets sheetsService;
     private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
@@ -40,51 +56,212 @@ public class GoogleSheetsService {
     );
     private final String sheetName = "Sheet1"; // Имя вашего листа, которое вы переименовали
 
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    @Value("${google.sheets.batch-size:100}")
+    private int batchSize;
+    @Value("${google.sheets.flush-interval-ms:2000}")
+    private long flushIntervalMs;
+    @Value("${google.sheets.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${google.sheets.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    private final BlockingQueue<PendingRow> buffer;
+    private volatile boolean running = true;
+    private Thread writerThread;
+
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchRows;
+    private final Counter writtenRows;
+    private final Counter failedRows;
+    private final Counter rejectedRows;
+
+    public GoogleSheetsService(@Value("${google.sheets.buffer-capacity:5000}") int bufferCapacity,
+                               MeterRegistry meterRegistry) {
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.meterRegistry = meterRegistry;
+        this.batchRows = DistributionSummary.builder("feedbackbot.sheets.batch.rows")
+                .description("Rows per append request")
+                .register(meterRegistry);
+        this.writtenRows = Counter.builder("feedbackbot.sheets.rows").tag("outcome", "written").register(meterRegistry);
+        this.failedRows = Counter.builder("feedbackbot.sheets.rows").tag("outcome", "failed").register(meterRegistry);
+        this.rejectedRows = Counter.builder("feedbackbot.sheets.rows").tag("outcome", "buffer_full").register(meterRegistry);
+        Gauge.builder("feedbackbot.sheets.buffer.size", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
     @PostConstruct
     public void init() throws IOException, GeneralSecurityException, ExecutionException, InterruptedException {
         NetHttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
-        GoogleCredential credential = GoogleCredential.fromStream(new FileInputStream(credentialsPath))
-                .createScoped(Collections.singleton(SheetsScopes.SPREADSHEETS));
+        HttpRequestInitializer credential = credentialsPath.isBlank()
+                ? request -> { }
+                : GoogleCredential.fromStream(new FileInputStream(credentialsPath))
+                        .createScoped(Collections.singleton(SheetsScopes.SPREADSHEETS));
 
-        sheetsService = new Sheets.Builder(httpTransport, JSON_FACTORY, credential)
-                .setApplicationName(applicationName)
-                .build();
+        Sheets.Builder builder = new Sheets.Builder(httpTransport, JSON_FACTORY, credential)
+                .setApplicationName(applicationName);
+        if (!rootUrl.isBlank()) {
+            builder.setRootUrl(rootUrl);
+        }
+        sheetsService = builder.build();
         checkAndSetHeaders();
+
+        writerThread = Thread.ofPlatform().name("sheets-writer").daemon(true).start(this::runWriter);
     }
 
     public CompletableFuture<Void> appendFeedback(Feedback feedback) {
-        return CompletableFuture.runAsync(() -> {
+        return appendFeedbacks(Collections.singletonList(feedback));
+    }
+
+    /*
+     * Queues the rows for the background writer. The future completes once the rows are in the sheet,
+     * or exceptionally when the buffer is full or all retries failed. Cancelling it withdraws the rows
+     * that the writer has not started sending yet.
+     */
+    public CompletableFuture<Void> appendFeedbacks(List<Feedback> feedbacks) {
+        List<CompletableFuture<Void>> written = new ArrayList<>(feedbacks.size());
+        for (Feedback feedback : feedbacks) {
+            PendingRow row = new PendingRow(feedback.getId(), toRowData(feedback), new CompletableFuture<>());
+            if (!buffer.offer(row)) {
+                rejectedRows.increment();
+                row.written.completeExceptionally(new RejectedExecutionException("Google Sheets buffer is full"));
+            }
+            written.add(row.written);
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(written.toArray(new CompletableFuture[0]));
+        all.whenComplete((ignored, error) -> {
+            if (error instanceof CancellationException) {
+                written.forEach(row -> row.cancel(false));
+            }
+        });
+        return all;
+    }
+
+    public int getBufferedRows() {
+        return buffer.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /*
+     * Missing values become empty cells, so an incomplete feedback can never stop the export.
+     */
+    private List<Object> toRowData(Feedback feedback) {
+        return Arrays.asList(
+                feedback.getId(),
+                feedback.getChatId(),
+                nameOf(feedback.getEmployeeRole()),
+                feedback.getBranch(),
+                feedback.getMessage(),
+                nameOf(feedback.getSentiment()),
+                feedback.getCriticalityLevel(),
+                feedback.getResolutionSuggestion(),
+                feedback.getSubmittedAt() != null ? feedback.getSubmittedAt().toString() : ""
+        );
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value != null ? value.name() : "";
+    }
+
+    /*
+     * Single writer thread: takes rows in FIFO order and sends them as one multi-row append per batch,
+     * once batch-size rows are collected or flush-interval-ms has passed since the first one.
+     * A batch is retried until it succeeds or runs out of attempts before the next one is sent,
+     * so rows reach the sheet in the order they were queued. Any other error fails just that batch.
+     */
+    private void runWriter() {
+        while (running || !buffer.isEmpty()) {
             try {
-                List<Object> rowData = Arrays.asList(
-                        feedback.getId(),
-                        feedback.getChatId(),
-                        feedback.getEmployeeRole().name(),
-                        feedback.getBranch(),
-                        feedback.getMessage(),
-                        feedback.getSentiment().name(),
-                        feedback.getCriticalityLevel(),
-                        feedback.getResolutionSuggestion(),
-                        feedback.getSubmittedAt().toString()
-                );
-
-                ValueRange body = new ValueRange().setValues(Collections.singletonList(rowData));
-
-                final String range = sheetName + "!A:I";
+                PendingRow first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingRow> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    long remaining = running ? deadline - System.currentTimeMillis() : 0;
+                    PendingRow next = remaining > 0 ? buffer.poll(remaining, TimeUnit.MILLISECONDS) : buffer.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                try {
+                    writeBatch(batch);
+                } catch (RuntimeException e) {
+                    // not retried (no I/O failure): fail this batch and keep the writer alive for the next
+                    failedRows.increment(batch.size());
+                    System.err.println("Unexpected error appending " + batch.size()
+                            + " feedback rows to Google Sheet: " + e.getMessage());
+                    for (PendingRow row : batch) {
+                        row.written.completeExceptionally(e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
 
+    private void writeBatch(List<PendingRow> batch) throws InterruptedException {
+        final String range = sheetName + "!A:I";
+        long backoffMs = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            // rows withdrawn by their caller (cancelled) are not sent, not even on a retry
+            batch.removeIf(row -> row.written.isDone());
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<List<Object>> values = new ArrayList<>(batch.size());
+            for (PendingRow row : batch) {
+                values.add(row.rowData);
+            }
+            ValueRange body = new ValueRange().setValues(values);
+            if (attempt == 1) {
+                batchRows.record(batch.size());
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
                 sheetsService.spreadsheets().values()
                         .append(spreadsheetId, range, body)
                         .setValueInputOption("RAW")
                         .setInsertDataOption("INSERT_ROWS")
                         .execute();
-
-                System.out.println("Feedback successfully appended to Google Sheet: " + feedback.getId());
-
+                sample.stop(meterRegistry.timer("feedbackbot.sheets.append", "outcome", "success"));
+                writtenRows.increment(batch.size());
+                System.out.println("Appended " + batch.size() + " feedback rows to Google Sheet, last id: "
+                        + batch.get(batch.size() - 1).feedbackId);
+                for (PendingRow row : batch) {
+                    row.written.complete(null);
+                }
+                return;
             } catch (IOException e) {
-                System.err.println("Error appending feedback to Google Sheet: " + e.getMessage());
-                e.printStackTrace();
-                throw new RuntimeException("Failed to append feedback to Google Sheet", e);
+                sample.stop(meterRegistry.timer("feedbackbot.sheets.append", "outcome", "error"));
+                if (attempt >= maxAttempts) {
+                    failedRows.increment(batch.size());
+                    System.err.println("Error appending " + batch.size() + " feedback rows to Google Sheet after "
+                            + attempt + " attempts: " + e.getMessage());
+                    RuntimeException failure = new RuntimeException("Failed to append feedback to Google Sheet", e);
+                    for (PendingRow row : batch) {
+                        row.written.completeExceptionally(failure);
+                    }
+                    return;
+                }
+                System.err.println("Error appending feedback rows to Google Sheet (attempt " + attempt + "), retrying in "
+                        + backoffMs + " ms: " + e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
             }
-        });
+        }
     }
 
     private void checkAndSetHeaders() throws IOException {
@@ -108,4 +285,7 @@ public class GoogleSheetsService {
             System.out.println("Google Sheet headers are already correct.");
         }
     }
-}
\ No newline at end of file
+
+    private record PendingRow(Long feedbackId, List<Object> rowData, CompletableFuture<Void> written) {
+    }
+}
@@ -0,0 +1,182 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import com.shiningpr1sm.feedbackbot.service.OpenAIService.AnalysisResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/*
+ * In-process pre-classifier based on a small Ukrainian sentiment lexicon and keyword criticality rules.
+ * Confident verdicts (short thank-you notes) skip the LLM entirely; everything else goes to OpenAI, including
+ * every message that hits a safety keyword, since a keyword cannot tell an incident from a mention of it
+ * ("навчання з пожежної безпеки"). It also provides the degraded-mode answer when OpenAI is unavailable.
+ */
+@Service
+public class LexiconClassifier {
+
+    // word stems, matched as token prefixes so that inflected forms ("травму", "травми") hit as well
+    private static final Set<String> POSITIVE_STEMS = Set.of(
+            "дяку", "спасиб", "добр", "чудов", "відмінн", "супер", "клас", "молодц", "задовол",
+            "подобаєт", "зручн", "гарн", "прекрасн", "вдячн", "ок", "окей", "норм", "чист"
+    );
+    private static final Set<String> NEGATIVE_STEMS = Set.of(
+            "поган", "жахлив", "зламан", "злам", "пробле", "затрим", "брудн", "небезпеч", "скарг",
+            "бракує", "нестач", "відсутн", "конфлікт", "хамств", "штраф", "несправн", "холодн", "перевтом"
+    );
+    private static final Set<String> NEGATIONS = Set.of("не", "ні", "немає", "нема", "без");
+    // words sharing a critical stem that name a precaution, not an incident ("пожежна безпека", "пожежний вихід")
+    private static final Set<String> CRITICAL_EXCEPTIONS = Set.of("пожежн");
+
+    // phrase or stem -> criticality level
+    private static final Map<String, Integer> CRITICAL_KEYWORDS = Map.ofEntries(
+            Map.entry("пожеж", 5),
+            Map.entry("загоран", 5),
+            Map.entry("вибух", 5),
+            Map.entry("травм", 5),
+            Map.entry("нещасн випадок", 5),
+            Map.entry("ураж струм", 5),
+            Map.entry("витік газу", 5),
+            Map.entry("запах газу", 5),
+            Map.entry("не працює підйомник", 4),
+            Map.entry("підйомник не працює", 4),
+            Map.entry("зламався підйомник", 4),
+            Map.entry("підйомник зламався", 4),
+            Map.entry("задимлен", 4),
+            Map.entry("оголен провод", 4),
+            // the hazard is the missing extinguisher, so the negation is part of these phrases
+            Map.entry("немає вогнегасник", 4),
+            Map.entry("нема вогнегасник", 4),
+            Map.entry("без вогнегасник", 4),
+            Map.entry("не працює вентиляц", 3),
+            Map.entry("витік", 3)
+    );
+
+    private final double confidenceThreshold;
+    private final int shortMessageTokens;
+
+    public LexiconClassifier(@Value("${analysis.lexicon.confidence-threshold:0.85}") double confidenceThreshold,
+                             @Value("${analysis.lexicon.short-message-tokens:6}") int shortMessageTokens) {
+        this.confidenceThreshold = confidenceThreshold;
+        this.shortMessageTokens = shortMessageTokens;
+    }
+
+    /*
+     * Returns a result only when the classifier is confident enough to skip the LLM.
+     */
+    public Optional<AnalysisResult> classifyConfidently(String feedbackText) {
+        Classification classification = classify(feedbackText);
+        if (classification.confidence() >= confidenceThreshold) {
+            return Optional.of(classification.toAnalysisResult(false));
+        }
+        return Optional.empty();
+    }
+
+    /*
+     * Best local guess regardless of confidence; used when OpenAI cannot be reached.
+     */
+    public AnalysisResult fallback(String feedbackText) {
+        return classify(feedbackText).toAnalysisResult(true);
+    }
+
+    public Classification classify(String feedbackText) {
+        String normalized = AnalysisCache.normalize(feedbackText);
+        List<String> tokens = normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+
+        int criticality = 0;
+        for (Map.Entry<String, Integer> keyword : CRITICAL_KEYWORDS.entrySet()) {
+            if (containsPhrase(tokens, keyword.getKey())) {
+                criticality = Math.max(criticality, keyword.getValue());
+            }
+        }
+        if (criticality >= 4) {
+            // never confident: the level is only the degraded-mode answer
+            return new Classification(FeedbackSentiment.NEGATIVE, criticality, 0.5,
+                    "Негайно повідомте керівника філії та відповідального з охорони праці, обмежте доступ до небезпечної зони та зафіксуйте інцидент.");
+        }
+
+        int positive = 0;
+        int negative = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            boolean negated = i > 0 && NEGATIONS.contains(tokens.get(i - 1));
+            if (matchesStem(token, POSITIVE_STEMS)) {
+                if (negated) {
+                    negative++;
+                } else {
+                    positive++;
+                }
+            } else if (matchesStem(token, NEGATIVE_STEMS)) {
+                if (negated) {
+                    positive++;
+                } else {
+                    negative++;
+                }
+            }
+        }
+
+        boolean shortMessage = tokens.size() <= shortMessageTokens;
+        if (criticality > 0 || negative > positive) {
+            int level = Math.max(criticality, Math.min(3, 1 + negative));
+            return new Classification(FeedbackSentiment.NEGATIVE, level, 0.5,
+                    "Передайте відгук керівнику філії для розгляду та уточніть деталі проблеми з працівниками.");
+        }
+        if (positive > 0) {
+            double confidence = shortMessage && negative == 0 ? 0.9 : 0.6;
+            return new Classification(FeedbackSentiment.POSITIVE, 1, confidence,
+                    "Додаткових дій не потрібно. Відгук можна поширити в колективі як позитивний приклад.");
+        }
+        return new Classification(FeedbackSentiment.NEUTRAL, 1, shortMessage ? 0.6 : 0.3,
+                "Відгук не потребує термінових дій. Розгляньте його на найближчій нараді філії.");
+    }
+
+    private static boolean matchesStem(String token, Set<String> stems) {
+        for (String stem : stems) {
+            if (matches(token, stem)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // very short stems ("ок", "не") must match the whole token, not a prefix of an unrelated word
+    private static boolean matches(String token, String stem) {
+        return stem.length() <= 3 ? token.equals(stem) : token.startsWith(stem);
+    }
+
+    /*
+     * A phrase of stems matches consecutive tokens, each starting with the corresponding stem. As with the
+     * sentiment words, an occurrence preceded by a negation ("без травм", "не вибух") does not count.
+     */
+    private static boolean containsPhrase(List<String> tokens, String phrase) {
+        String[] stems = phrase.split(" ");
+        for (int start = 0; start + stems.length <= tokens.size(); start++) {
+            boolean matches = start == 0 || !NEGATIONS.contains(tokens.get(start - 1));
+            for (int j = 0; j < stems.length && matches; j++) {
+                String token = tokens.get(start + j);
+                matches = matches(token, stems[j]) && !matchesStem(token, CRITICAL_EXCEPTIONS);
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public record Classification(FeedbackSentiment sentiment, int criticalityLevel, double confidence,
+                                 String resolutionSuggestion) {
+
+        AnalysisResult toAnalysisResult(boolean fallback) {
+            return AnalysisResult.builder()
+                    .sentiment(sentiment)
+                    .criticalityLevel(criticalityLevel)
+                    .resolutionSuggestion(resolutionSuggestion)
+                    .fallback(fallback)
+                    .build();
+        }
+    }
+}
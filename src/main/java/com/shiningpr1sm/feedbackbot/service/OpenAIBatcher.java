@@ -0,0 +1,103 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.service.OpenAIService.AnalysisResult;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/*
+ * Collects feedback texts for up to maxWaitMillis or maxBatchSize items, sends them as one request
+ * and fans the results back out to the waiting callers. Items missing from the batch answer
+ * are retried one by one; a failed batch request fails every item of the batch.
+ */
+class OpenAIBatcher {
+
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+    private final Function<List<String>, Mono<List<AnalysisResult>>> batchCall;
+    private final Function<String, Mono<AnalysisResult>> singleCall;
+
+    // guarded by "this"
+    private List<PendingItem> pending = new ArrayList<>();
+
+    OpenAIBatcher(int maxBatchSize,
+                  long maxWaitMillis,
+                  Function<List<String>, Mono<List<AnalysisResult>>> batchCall,
+                  Function<String, Mono<AnalysisResult>> singleCall) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.batchCall = batchCall;
+        this.singleCall = singleCall;
+    }
+
+    Mono<AnalysisResult> submit(String feedbackText) {
+        return Mono.create(sink -> {
+            List<PendingItem> fullBatch = null;
+            boolean firstInBatch;
+            synchronized (this) {
+                pending.add(new PendingItem(feedbackText, sink));
+                firstInBatch = pending.size() == 1;
+                if (pending.size() >= maxBatchSize) {
+                    fullBatch = drain();
+                }
+            }
+            if (fullBatch != null) {
+                send(fullBatch);
+            } else if (firstInBatch) {
+                Schedulers.parallel().schedule(this::flush, maxWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    private void flush() {
+        List<PendingItem> batch;
+        synchronized (this) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private List<PendingItem> drain() {
+        List<PendingItem> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void send(List<PendingItem> batch) {
+        if (batch.size() == 1) {
+            PendingItem item = batch.get(0);
+            singleCall.apply(item.feedbackText).subscribe(item.sink::success, item.sink::error);
+            return;
+        }
+
+        List<String> texts = new ArrayList<>(batch.size());
+        for (PendingItem item : batch) {
+            texts.add(item.feedbackText);
+        }
+        batchCall.apply(texts).subscribe(results -> {
+            for (int i = 0; i < batch.size(); i++) {
+                PendingItem item = batch.get(i);
+                AnalysisResult result = results.get(i);
+                if (result != null) {
+                    item.sink.success(result);
+                } else {
+                    singleCall.apply(item.feedbackText).subscribe(item.sink::success, item.sink::error);
+                }
+            }
+        }, error -> {
+            for (PendingItem item : batch) {
+                item.sink.error(error);
+            }
+        });
+    }
+
+    private record PendingItem(String feedbackText, MonoSink<AnalysisResult> sink) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Circuit breaker around the OpenAI endpoint. After failure-threshold consecutive failures it opens and
+ * every call fails fast for open-duration-ms; then a single trial call decides whether it closes again.
+ * Each state change starts a new generation, and a call reports back with the Permit it was given, so a call
+ * that started in an earlier generation (e.g. one still running when the breaker opened) changes nothing.
+ */
+@Service
+public class OpenAICircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /*
+     * Handed out per permitted call; trial is set for the single HALF_OPEN call.
+     */
+    public record Permit(long generation, boolean trial) {
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    // all guarded by "this"
+    private State state = State.CLOSED;
+    private long generation;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    public OpenAICircuitBreaker(@Value("${openai.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                                @Value("${openai.circuit-breaker.open-duration-ms:30000}") long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /*
+     * Returns null when the call is rejected.
+     */
+    public synchronized Permit tryAcquirePermission() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMillis) {
+            transitionTo(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED:
+                return new Permit(generation, false);
+            case HALF_OPEN:
+                if (!trialInFlight) {
+                    trialInFlight = true;
+                    return new Permit(generation, true);
+                }
+                break;
+            default:
+                break;
+        }
+        rejectedCalls.incrementAndGet();
+        return null;
+    }
+
+    public synchronized void onSuccess(Permit permit) {
+        if (permit.generation() != generation) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (permit.trial()) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure(Permit permit) {
+        if (permit.generation() != generation) {
+            return;
+        }
+        consecutiveFailures++;
+        if (permit.trial() || consecutiveFailures >= failureThreshold) {
+            transitionTo(State.OPEN);
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /*
+     * The permitted call ended without telling anything about OpenAI's health (e.g. it was shed locally).
+     */
+    public synchronized void onIgnored(Permit permit) {
+        if (permit.trial() && permit.generation() == generation) {
+            trialInFlight = false;
+        }
+    }
+
+    private void transitionTo(State next) {
+        state = next;
+        generation++;
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+}
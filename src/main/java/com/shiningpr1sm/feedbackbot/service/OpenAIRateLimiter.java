@@ -0,0 +1,176 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Client-side token bucket for OpenAI requests. Starts from the configured requests-per-minute and
+ * adapts to the x-ratelimit-* headers of every response; a 429 Retry-After pauses admission entirely.
+ * A caller that would have to wait longer than max-wait-ms is shed instead of queued.
+ */
+@Service
+public class OpenAIRateLimiter {
+
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ms|h|m|s)");
+
+    private final long maxWaitMillis;
+    private final long minRemainingTokens;
+
+    // all guarded by "this"
+    private double capacity;
+    private double refillPerMilli;
+    private double tokens;
+    private long lastRefill = System.currentTimeMillis();
+    private long pausedUntil;
+
+    private final AtomicLong shedRequests = new AtomicLong();
+
+    public OpenAIRateLimiter(@Value("${openai.rate-limit.requests-per-minute:500}") int requestsPerMinute,
+                             @Value("${openai.rate-limit.max-wait-ms:10000}") long maxWaitMillis,
+                             @Value("${openai.rate-limit.min-remaining-tokens:2000}") long minRemainingTokens) {
+        this.capacity = requestsPerMinute;
+        this.refillPerMilli = requestsPerMinute / 60_000.0;
+        this.tokens = requestsPerMinute;
+        this.maxWaitMillis = maxWaitMillis;
+        this.minRemainingTokens = minRemainingTokens;
+    }
+
+    /*
+     * Completes when the request may be sent, or fails with OpenAIRequestRejectedException if it is shed.
+     */
+    public Mono<Void> acquire() {
+        return Mono.defer(() -> {
+            long waitMillis = reserve();
+            if (waitMillis < 0) {
+                shedRequests.incrementAndGet();
+                return Mono.error(new OpenAIRequestRejectedException("OpenAI rate limit budget exhausted"));
+            }
+            return waitMillis == 0 ? Mono.empty() : Mono.delay(Duration.ofMillis(waitMillis)).then();
+        });
+    }
+
+    public synchronized void updateFromHeaders(HttpHeaders headers) {
+        long now = System.currentTimeMillis();
+        refill(now);
+
+        Long limitRequests = parseLong(headers.getFirst("x-ratelimit-limit-requests"));
+        if (limitRequests != null && limitRequests > 0) {
+            capacity = limitRequests;
+            refillPerMilli = limitRequests / 60_000.0;
+        }
+        Long remainingRequests = parseLong(headers.getFirst("x-ratelimit-remaining-requests"));
+        if (remainingRequests != null) {
+            tokens = Math.min(tokens, remainingRequests);
+            if (remainingRequests == 0) {
+                pauseUntil(now + parseDuration(headers.getFirst("x-ratelimit-reset-requests")));
+            }
+        }
+        Long remainingTokens = parseLong(headers.getFirst("x-ratelimit-remaining-tokens"));
+        if (remainingTokens != null && remainingTokens < minRemainingTokens) {
+            pauseUntil(now + parseDuration(headers.getFirst("x-ratelimit-reset-tokens")));
+        }
+    }
+
+    /*
+     * Called on 429: nothing is sent until Retry-After (or the rate-limit reset) has passed.
+     */
+    public synchronized void onRateLimited(HttpHeaders headers) {
+        long now = System.currentTimeMillis();
+        long retryAfterMillis = 1000;
+        Long retryAfterSeconds = parseLong(headers.getFirst(HttpHeaders.RETRY_AFTER));
+        if (retryAfterSeconds != null) {
+            retryAfterMillis = retryAfterSeconds * 1000;
+        } else if (headers.getFirst("x-ratelimit-reset-requests") != null) {
+            retryAfterMillis = parseDuration(headers.getFirst("x-ratelimit-reset-requests"));
+        }
+        tokens = Math.min(tokens, 0);
+        pauseUntil(now + retryAfterMillis);
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill(System.currentTimeMillis());
+        return tokens;
+    }
+
+    public synchronized double getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getPausedForMillis() {
+        return Math.max(0, pausedUntil - System.currentTimeMillis());
+    }
+
+    public long getShedRequests() {
+        return shedRequests.get();
+    }
+
+    /*
+     * Takes one token, allowing the balance to go negative: the deficit is the caller's wait time.
+     * Returns -1 when that wait would exceed maxWaitMillis (the token is given back).
+     */
+    private synchronized long reserve() {
+        long now = System.currentTimeMillis();
+        refill(now);
+        tokens -= 1;
+        long waitMillis = Math.max(0, pausedUntil - now);
+        if (tokens < 0) {
+            waitMillis += (long) Math.ceil(-tokens / refillPerMilli);
+        }
+        if (waitMillis > maxWaitMillis) {
+            tokens += 1;
+            return -1;
+        }
+        return waitMillis;
+    }
+
+    private void refill(long now) {
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerMilli);
+            lastRefill = now;
+        }
+    }
+
+    private void pauseUntil(long until) {
+        pausedUntil = Math.max(pausedUntil, until);
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /*
+     * OpenAI reset headers look like "20ms", "1s", "6m0s" or "1h2m3.5s".
+     */
+    static long parseDuration(String value) {
+        if (value == null) {
+            return 1000;
+        }
+        double millis = 0;
+        Matcher matcher = DURATION_PART.matcher(value);
+        while (matcher.find()) {
+            double amount = Double.parseDouble(matcher.group(1));
+            switch (matcher.group(2)) {
+                case "ms" -> millis += amount;
+                case "s" -> millis += amount * 1000;
+                case "m" -> millis += amount * 60_000;
+                case "h" -> millis += amount * 3_600_000;
+                default -> { }
+            }
+        }
+        return (long) Math.ceil(millis);
+    }
+}
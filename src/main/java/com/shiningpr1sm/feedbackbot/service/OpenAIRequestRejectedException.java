@@ -0,0 +1,11 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+/*
+ * The OpenAI call was not attempted: the circuit breaker is open or the rate limiter shed it.
+ */
+public class OpenAIRequestRejectedException extends RuntimeException {
+
+    public OpenAIRequestRejectedException(String message) {
+        super(message);
+    }
+}
@@ -4,35 +4,79 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
 import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class OpenAIService {
 
+    static final String SYSTEM_PROMPT = "You are an assistant that analyzes anonymous employee feedback for an auto service. Provide sentiment, criticality, and a brief resolution suggestion in JSON format. Ensure all values are present. Sentiment must be POSITIVE, NEUTRAL, or NEGATIVE. Criticality is 1-5.";
+    static final String BATCH_SYSTEM_PROMPT = "You are an assistant that analyzes anonymous employee feedback for an auto service. You receive several feedback items, each with an id. For every item provide sentiment, criticality, and a brief resolution suggestion in JSON format. Ensure all values are present. Sentiment must be POSITIVE, NEUTRAL, or NEGATIVE. Criticality is 1-5.";
+
     private final WebClient webClient;
     private final String openAiModel;
     private final ObjectMapper objectMapper;
+    private final OpenAIBatcher batcher;
+    private final AnalysisCache analysisCache;
+    private final OpenAIRateLimiter rateLimiter;
+    private final OpenAICircuitBreaker circuitBreaker;
+    private final LexiconClassifier lexiconClassifier;
+    private final FeedbackTracer feedbackTracer;
+    private final Duration requestTimeout;
+    private final int maxRetries;
+    private final String promptVersion;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer singleParseTimer;
+    private final Timer batchParseTimer;
+    private final Counter retries;
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+    private final Counter batchItemsRetried;
 
     public OpenAIService(@Value("${openai.api.url}") String openAiApiUrl,
                          @Value("${openai.api.key}") String openAiApiKey,
                          @Value("${openai.model}") String openAiModel,
-                         ObjectMapper objectMapper) {
+                         @Value("${openai.batch.enabled:false}") boolean batchEnabled,
+                         @Value("${openai.batch.max-size:10}") int batchMaxSize,
+                         @Value("${openai.batch.max-wait-ms:200}") long batchMaxWaitMs,
+                         @Value("${openai.prompt.version:1}") String configuredPromptVersion,
+                         @Value("${openai.request-timeout-ms:30000}") long requestTimeoutMs,
+                         @Value("${openai.max-retries:3}") int maxRetries,
+                         ObjectMapper objectMapper,
+                         AnalysisCache analysisCache,
+                         OpenAIRateLimiter rateLimiter,
+                         OpenAICircuitBreaker circuitBreaker,
+                         LexiconClassifier lexiconClassifier,
+                         FeedbackTracer feedbackTracer,
+                         MeterRegistry meterRegistry) {
         this.webClient = WebClient.builder()
                 .baseUrl(openAiApiUrl)
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + openAiApiKey)
@@ -40,76 +84,307 @@ public class OpenAIService {
                 .build();
         this.openAiModel = openAiModel;
         this.objectMapper = objectMapper;
+        this.batcher = batchEnabled
+                ? new OpenAIBatcher(batchMaxSize, batchMaxWaitMs, this::requestBatchAnalysis, this::requestAnalysis)
+                : null;
+        this.analysisCache = analysisCache;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.lexiconClassifier = lexiconClassifier;
+        this.feedbackTracer = feedbackTracer;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.maxRetries = maxRetries;
+        this.meterRegistry = meterRegistry;
+        this.singleParseTimer = Timer.builder("feedbackbot.openai.parse").tag("kind", "single").register(meterRegistry);
+        this.batchParseTimer = Timer.builder("feedbackbot.openai.parse").tag("kind", "batch").register(meterRegistry);
+        this.retries = Counter.builder("feedbackbot.openai.retries")
+                .description("OpenAI requests retried after a 429")
+                .register(meterRegistry);
+        this.promptTokens = Counter.builder("feedbackbot.openai.tokens").tag("type", "prompt").register(meterRegistry);
+        this.completionTokens = Counter.builder("feedbackbot.openai.tokens").tag("type", "completion").register(meterRegistry);
+        this.batchItemsRetried = Counter.builder("feedbackbot.openai.batch.retried-items")
+                .description("Batch items the model skipped or answered invalidly, retried on their own")
+                .register(meterRegistry);
+        // any edit of the prompts or a model switch changes the version, which invalidates cached results
+        this.promptVersion = configuredPromptVersion + "-" + AnalysisCache.sha256(
+                openAiModel + SYSTEM_PROMPT + BATCH_SYSTEM_PROMPT + buildPrompt("") + buildBatchPrompt(List.of())).substring(0, 12);
+    }
+
+    public String getPromptVersion() {
+        return promptVersion;
     }
 
     public Mono<AnalysisResult> analyzeFeedback(String feedbackText) {
-        String prompt = buildPrompt(feedbackText);
+        Optional<AnalysisResult> local = lexiconClassifier.classifyConfidently(feedbackText);
+        if (local.isPresent()) {
+            countSource("lexicon");
+            return Mono.just(local.get());
+        }
+        Optional<AnalysisResult> cached = analysisCache.get(promptVersion, feedbackText);
+        if (cached.isPresent()) {
+            countSource("cache");
+            return Mono.just(cached.get());
+        }
+
+        Mono<AnalysisResult> analysis = batcher != null
+                ? batcher.submit(feedbackText)
+                : requestAnalysis(feedbackText);
+        // the request spans of a single call are children of the caller's span (batches start their own trace)
+        Span parent = feedbackTracer.currentSpan();
+        return analysis
+                .map(result -> {
+                    if (result.isFallback()) {
+                        // the model answered, but not with a usable analysis: degraded mode as for an error
+                        countFallback("parse_error");
+                        return lexiconClassifier.fallback(feedbackText);
+                    }
+                    countSource("openai");
+                    analysisCache.put(promptVersion, feedbackText, result);
+                    return result;
+                })
+                .onErrorResume(e -> {
+                    System.err.println(FeedbackTracer.logPrefix(parent) + "Error calling OpenAI API: " + e.getMessage());
+                    countFallback(fallbackReason(e));
+                    // degraded mode: best local guess instead of a constant NEUTRAL/1
+                    return Mono.just(lexiconClassifier.fallback(feedbackText));
+                })
+                .contextWrite(context -> parent != null ? context.put(Span.class, parent) : context);
+    }
+
+    private Mono<AnalysisResult> requestAnalysis(String feedbackText) {
+        return callOpenAI(buildRequest(feedbackText))
+                // Парсим ответ
+                .map(jsonResponse -> singleParseTimer.record(() -> parseOpenAIResponse(jsonResponse)));
+    }
+
+    /*
+     * One chat completion for the whole batch. The returned list is aligned with feedbackTexts;
+     * an item the model skipped or answered with invalid values is null and is retried on its own.
+     */
+    private Mono<List<AnalysisResult>> requestBatchAnalysis(List<String> feedbackTexts) {
         OpenAIRequest request = OpenAIRequest.builder()
                 .model(openAiModel)
-                .addMessage(new Message("system", "You are an assistant that analyzes anonymous employee feedback for an auto service. Provide sentiment, criticality, and a brief resolution suggestion in JSON format. Ensure all values are present. Sentiment must be POSITIVE, NEUTRAL, or NEGATIVE. Criticality is 1-5."))
-                .addMessage(new Message("user", prompt))
+                .addMessage(new Message("system", BATCH_SYSTEM_PROMPT))
+                .addMessage(new Message("user", buildBatchPrompt(feedbackTexts)))
                 .responseFormat(new ResponseFormat("json_object"))
                 .build();
 
-        return webClient.post()
-                .body(BodyInserters.fromValue(request))
-                .retrieve()
-                .bodyToMono(String.class)
-                // Парсим ответ
-                .map(this::parseOpenAIResponse)
-                // Обрабатываем 429 с повторной попыткой
-                .retryWhen(Retry.backoff(3, Duration.ofSeconds(2))
-                        .filter(throwable -> {
-                            String msg = throwable.getMessage();
-                            return msg != null && msg.contains("429");
-                        })
-                )
-                .onErrorResume(e -> {
-                    System.err.println("Error calling OpenAI API: " + e.getMessage());
-                    return Mono.just(AnalysisResult.builder()
-                            .sentiment(FeedbackSentiment.NEUTRAL)
-                            .criticalityLevel(1)
-                            .resolutionSuggestion("Failed to analyze feedback due to API error.")
-                            .build());
+        return callOpenAI(request)
+                .map(jsonResponse -> {
+                    List<AnalysisResult> results = batchParseTimer.record(
+                            () -> parseBatchResponse(jsonResponse, feedbackTexts.size()));
+                    batchItemsRetried.increment(Collections.frequency(results, null));
+                    return results;
                 });
     }
 
+    /*
+     * Every attempt passes the circuit breaker (fail fast while open) and the rate limiter (wait or shed)
+     * before it reaches the network. 429 responses feed Retry-After into the limiter and are retried;
+     * 5xx, timeouts and connection errors count as breaker failures.
+     */
+    private Mono<String> callOpenAI(OpenAIRequest request) {
+        return Mono.defer(() -> {
+                    OpenAICircuitBreaker.Permit permit = circuitBreaker.tryAcquirePermission();
+                    if (permit == null) {
+                        return Mono.error(new OpenAIRequestRejectedException("OpenAI circuit breaker is open"));
+                    }
+                    return rateLimiter.acquire()
+                            .then(Mono.deferContextual(context -> {
+                                // network time only: the rate limiter wait is not part of the request timer and span
+                                Timer.Sample sample = Timer.start(meterRegistry);
+                                Span span = feedbackTracer.nextSpan(context.getOrDefault(Span.class, null), "openai.request");
+                                return webClient.post()
+                                        .body(BodyInserters.fromValue(request))
+                                        .exchangeToMono(response -> {
+                                            HttpHeaders headers = response.headers().asHttpHeaders();
+                                            rateLimiter.updateFromHeaders(headers);
+                                            String status = Integer.toString(response.statusCode().value());
+                                            if (response.statusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                                                rateLimiter.onRateLimited(headers);
+                                            }
+                                            if (response.statusCode().isError()) {
+                                                finishRequest(sample, span, status, null);
+                                                return response.createException().flatMap(Mono::error);
+                                            }
+                                            return response.bodyToMono(String.class)
+                                                    .doOnNext(body -> finishRequest(sample, span, status, null));
+                                        })
+                                        .timeout(requestTimeout)
+                                        .doOnError(e -> {
+                                            if (!(e instanceof WebClientResponseException)) {
+                                                finishRequest(sample, span, e instanceof TimeoutException ? "timeout" : "io_error", e);
+                                            }
+                                        })
+                                        .doOnCancel(() -> finishRequest(sample, span, "cancelled", null));
+                            }))
+                            .doOnSuccess(body -> circuitBreaker.onSuccess(permit))
+                            .doOnError(e -> recordFailure(permit, e))
+                            // a caller that gave up says nothing about OpenAI, but a HALF_OPEN trial must be released
+                            .doOnCancel(() -> circuitBreaker.onIgnored(permit));
+                })
+                // Обрабатываем 429 с повторной попыткой
+                .retryWhen(Retry.backoff(maxRetries, Duration.ofMillis(500))
+                        .filter(throwable -> throwable instanceof WebClientResponseException.TooManyRequests)
+                        .doBeforeRetry(signal -> retries.increment()));
+    }
+
+    private void finishRequest(Timer.Sample sample, Span span, String status, Throwable error) {
+        sample.stop(meterRegistry.timer("feedbackbot.openai.request", "status", status));
+        span.tag("http.status", status);
+        if (error != null) {
+            span.error(error);
+        }
+        span.end();
+    }
+
+    private void countSource(String source) {
+        meterRegistry.counter("feedbackbot.analysis.source", "source", source).increment();
+    }
+
+    /*
+     * Every result produced locally because the API call or its parsing failed.
+     */
+    private void countFallback(String reason) {
+        countSource("fallback");
+        meterRegistry.counter("feedbackbot.analysis.fallback", "reason", reason).increment();
+    }
+
+    private static String fallbackReason(Throwable throwable) {
+        if (throwable instanceof OpenAIRequestRejectedException) {
+            return "rejected";
+        }
+        if (throwable instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (Exceptions.isRetryExhausted(throwable)) {
+            // only 429s are retried
+            return "rate_limited";
+        }
+        if (throwable instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                    ? "rate_limited" : "http_error";
+        }
+        return "error";
+    }
+
+    private void recordFailure(OpenAICircuitBreaker.Permit permit, Throwable throwable) {
+        if (throwable instanceof OpenAIRequestRejectedException) {
+            circuitBreaker.onIgnored(permit);
+        } else if (throwable instanceof WebClientResponseException responseException
+                && !responseException.getStatusCode().is5xxServerError()) {
+            // 429 and other 4xx mean OpenAI is up and answering
+            circuitBreaker.onSuccess(permit);
+        } else {
+            circuitBreaker.onFailure(permit);
+        }
+    }
+
 
-    private String buildPrompt(String feedbackText) {
+    // package-private for the benchmarks module
+    OpenAIRequest buildRequest(String feedbackText) {
+        return OpenAIRequest.builder()
+                .model(openAiModel)
+                .addMessage(new Message("system", SYSTEM_PROMPT))
+                .addMessage(new Message("user", buildPrompt(feedbackText)))
+                .responseFormat(new ResponseFormat("json_object"))
+                .build();
+    }
+
+    String buildPrompt(String feedbackText) {
         return "Analyze the following employee feedback from an auto service and output a JSON object with 'sentiment' (POSITIVE, NEUTRAL, NEGATIVE), 'criticalityLevel' (1-5), and 'resolutionSuggestion' (a brief plan on how to resolve the issue). Ensure the JSON is valid.\n\n" +
                 "Feedback: \"" + feedbackText + "\". Give an output in Ukrainian language.";
     }
 
-    private AnalysisResult parseOpenAIResponse(String jsonResponse) {
+    /*
+     * response_format json_object does not allow a top-level array, so the array is wrapped in "results".
+     */
+    String buildBatchPrompt(List<String> feedbackTexts) {
+        ArrayNode items = objectMapper.createArrayNode();
+        for (int i = 0; i < feedbackTexts.size(); i++) {
+            items.addObject()
+                    .put("id", i)
+                    .put("text", feedbackTexts.get(i));
+        }
+        return "Analyze each of the following employee feedback items from an auto service and output a JSON object with a 'results' array. Every array element must contain 'id' (the id of the item), 'sentiment' (POSITIVE, NEUTRAL, NEGATIVE), 'criticalityLevel' (1-5), and 'resolutionSuggestion' (a brief plan on how to resolve the issue). Return exactly one element per item. Ensure the JSON is valid.\n\n" +
+                "Feedback items: " + items + "\nGive an output in Ukrainian language.";
+    }
+
+    /*
+     * A payload that is not a valid analysis yields a result marked fallback; analyzeFeedback replaces it
+     * with the lexicon's answer.
+     */
+    AnalysisResult parseOpenAIResponse(String jsonResponse) {
         try {
-            JsonNode rootNode = objectMapper.readTree(jsonResponse);
-            JsonNode choicesNode = rootNode.path("choices");
-            if (choicesNode.isArray() && choicesNode.size() > 0) {
-                JsonNode messageNode = choicesNode.get(0).path("message");
-                JsonNode contentNode = messageNode.path("content");
-
-                if (contentNode.isTextual()) {
-                    String contentString = contentNode.asText();
-                    JsonNode analysisNode = objectMapper.readTree(contentString);
-
-                    String sentimentStr = analysisNode.path("sentiment").asText("NEUTRAL");
-                    int criticality = analysisNode.path("criticalityLevel").asInt(1);
-                    String resolution = analysisNode.path("resolutionSuggestion").asText("No specific resolution suggested.");
-
-                    return AnalysisResult.builder()
-                            .sentiment(FeedbackSentiment.valueOf(sentimentStr.toUpperCase()))
-                            .criticalityLevel(criticality)
-                            .resolutionSuggestion(resolution)
-                            .build();
-                }
+            JsonNode contentNode = extractContent(jsonResponse);
+            if (contentNode.isTextual()) {
+                JsonNode analysisNode = objectMapper.readTree(contentNode.asText());
+                return parseAnalysisNode(analysisNode);
             }
         } catch (JsonProcessingException e) {
             System.err.println("Error parsing OpenAI JSON response: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid OpenAI analysis: " + e.getMessage());
         }
         return AnalysisResult.builder()
                 .sentiment(FeedbackSentiment.NEUTRAL)
                 .criticalityLevel(1)
                 .resolutionSuggestion("Failed to parse OpenAI analysis.")
+                .fallback(true)
+                .build();
+    }
+
+    List<AnalysisResult> parseBatchResponse(String jsonResponse, int itemCount) {
+        List<AnalysisResult> results = new ArrayList<>(Collections.<AnalysisResult>nCopies(itemCount, null));
+        try {
+            JsonNode contentNode = extractContent(jsonResponse);
+            if (contentNode.isTextual()) {
+                JsonNode resultsNode = objectMapper.readTree(contentNode.asText()).path("results");
+                for (JsonNode itemNode : resultsNode) {
+                    int id = itemNode.path("id").asInt(-1);
+                    if (id < 0 || id >= itemCount) {
+                        continue;
+                    }
+                    try {
+                        results.set(id, parseAnalysisNode(itemNode));
+                    } catch (IllegalArgumentException e) {
+                        System.err.println("Invalid OpenAI batch item " + id + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            System.err.println("Error parsing OpenAI batch JSON response: " + e.getMessage());
+        }
+        return results;
+    }
+
+    private JsonNode extractContent(String jsonResponse) throws JsonProcessingException {
+        JsonNode rootNode = objectMapper.readTree(jsonResponse);
+        JsonNode usageNode = rootNode.path("usage");
+        promptTokens.increment(usageNode.path("prompt_tokens").asLong(0));
+        completionTokens.increment(usageNode.path("completion_tokens").asLong(0));
+        JsonNode choicesNode = rootNode.path("choices");
+        if (choicesNode.isArray() && choicesNode.size() > 0) {
+            return choicesNode.get(0).path("message").path("content");
+        }
+        return MissingNode.getInstance();
+    }
+
+    /*
+     * Throws IllegalArgumentException for an unknown sentiment or a criticality outside 1..5.
+     */
+    private AnalysisResult parseAnalysisNode(JsonNode analysisNode) {
+        String sentimentStr = analysisNode.path("sentiment").asText("NEUTRAL");
+        int criticality = analysisNode.path("criticalityLevel").asInt(1);
+        if (criticality < 1 || criticality > 5) {
+            throw new IllegalArgumentException("criticalityLevel " + criticality + " is outside 1..5");
+        }
+        String resolution = analysisNode.path("resolutionSuggestion").asText("No specific resolution suggested.");
+
+        return AnalysisResult.builder()
+                .sentiment(FeedbackSentiment.valueOf(sentimentStr.toUpperCase()))
+                .criticalityLevel(criticality)
+                .resolutionSuggestion(resolution)
                 .build();
     }
 
@@ -119,6 +394,8 @@ public class OpenAIService {
         private FeedbackSentiment sentiment;
         private Integer criticalityLevel;
         private String resolutionSuggestion;
+        // produced locally because the API call or its parsing failed; never cached
+        private boolean fallback;
     }
 
     @Data
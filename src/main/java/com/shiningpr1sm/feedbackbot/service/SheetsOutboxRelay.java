@@ -0,0 +1,191 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import com.shiningpr1sm.feedbackbot.model.SheetsExportState;
+import com.shiningpr1sm.feedbackbot.model.SheetsOutboxEntry;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackRepository;
+import com.shiningpr1sm.feedbackbot.repository.SheetsExportStateRepository;
+import com.shiningpr1sm.feedbackbot.repository.SheetsOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/*
+ * Drains sheets_outbox to Google Sheets in id order. An entry is deleted only after its row is written,
+ * so a restart or an API outage delays the export but never loses it. The relay never waits for the writer:
+ * each poll collects the batch handed over on an earlier poll (if it is done) and hands over the next one, so the
+ * shared scheduler thread is not held by a slow append, and a batch still being written is never sent again.
+ * Delivery is still at-least-once, since a crash between the append and the delete re-sends that batch.
+ *
+ * In cluster mode only the holder of the Sheets relay lease drains the outbox. A node that loses the lease reads
+ * no more entries and cancels its batch, which withdraws every row the writer has not started sending; the new
+ * holder reads those entries again. A lease handover can still duplicate rows: those of an append request
+ * already on the wire, and those appended but not yet deleted when the lease moved.
+ */
+@Service
+public class SheetsOutboxRelay {
+
+    private final SheetsOutboxRepository sheetsOutboxRepository;
+    private final SheetsExportStateRepository sheetsExportStateRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final GoogleSheetsService googleSheetsService;
+    private final FeedbackTracer feedbackTracer;
+    private final ClusterCoordinator clusterCoordinator;
+    private final int batchSize;
+    // the batch handed to the writer and not collected yet; set only by the relay's scheduler thread
+    private volatile InFlightBatch inFlight;
+
+    private record InFlightBatch(List<SheetsOutboxEntry> entries, List<Feedback> feedbacks, long appendStart,
+                                 CompletableFuture<Void> written) {
+    }
+
+    public SheetsOutboxRelay(SheetsOutboxRepository sheetsOutboxRepository,
+                             SheetsExportStateRepository sheetsExportStateRepository,
+                             FeedbackRepository feedbackRepository,
+                             GoogleSheetsService googleSheetsService,
+                             FeedbackTracer feedbackTracer,
+                             ClusterCoordinator clusterCoordinator,
+                             @Value("${google.sheets.outbox.batch-size:100}") int batchSize) {
+        this.sheetsOutboxRepository = sheetsOutboxRepository;
+        this.sheetsExportStateRepository = sheetsExportStateRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.googleSheetsService = googleSheetsService;
+        this.feedbackTracer = feedbackTracer;
+        this.clusterCoordinator = clusterCoordinator;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener
+    public void onLeaseChanged(ClusterLeaseChangedEvent event) {
+        if (ClusterCoordinator.SHEETS_RELAY_LEASE.equals(event.lease()) && !event.held()) {
+            fence();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${google.sheets.outbox.poll-interval-ms:2000}")
+    public void relay() {
+        if (inFlight != null) {
+            if (!inFlight.written().isDone()) {
+                // also covers a batch handed over just before the lease event was published
+                if (!clusterCoordinator.holdsLease(ClusterCoordinator.SHEETS_RELAY_LEASE)) {
+                    fence();
+                }
+                return;
+            }
+            InFlightBatch finished = inFlight;
+            inFlight = null;
+            if (!finish(finished)) {
+                return;
+            }
+        }
+        // checked per batch: the lease can move to another node between polls
+        if (!clusterCoordinator.holdsLease(ClusterCoordinator.SHEETS_RELAY_LEASE)) {
+            return;
+        }
+        List<SheetsOutboxEntry> entries = sheetsOutboxRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<Feedback> feedbacks = new ArrayList<>(feedbackRepository.findAllById(
+                entries.stream().map(SheetsOutboxEntry::getFeedbackId).toList()));
+        feedbacks.sort(Comparator.comparing(Feedback::getId));
+
+        // collected on a later poll
+        inFlight = new InFlightBatch(entries, feedbacks, System.currentTimeMillis(),
+                googleSheetsService.appendFeedbacks(feedbacks));
+    }
+
+    /*
+     * Withdraws the rows of the current batch that are not being sent yet; its entries stay for the next lease holder.
+     */
+    private void fence() {
+        InFlightBatch batch = inFlight;
+        if (batch != null && batch.written().cancel(false)) {
+            System.err.println("Sheets relay lease lost, withdrew the unsent rows of a batch of " + batch.entries().size());
+        }
+    }
+
+    /*
+     * Completes a written (or failed) batch. Returns false if it failed; its entries are retried on the next poll.
+     */
+    private boolean finish(InFlightBatch batch) {
+        try {
+            batch.written().join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("Sheets outbox relay stopped, " + batch.entries().size() + " rows will be retried: "
+                    + cause.getMessage());
+            recordStages(batch.entries(), batch.appendStart(), cause);
+            return false;
+        }
+        recordStages(batch.entries(), batch.appendStart(), null);
+
+        sheetsOutboxRepository.deleteAllInBatch(batch.entries());
+        batch.feedbacks().stream()
+                .map(Feedback::getId)
+                .max(Long::compare)
+                .ifPresent(this::advanceWatermark);
+        return true;
+    }
+
+    /*
+     * Incremental resync: re-queues every feedback above the given id, or above the stored
+     * high-watermark when fromFeedbackId is null. Returns the number of queued rows.
+     */
+    public int resync(Long fromFeedbackId) {
+        long after = fromFeedbackId != null ? fromFeedbackId : getLastExportedFeedbackId();
+        return sheetsOutboxRepository.enqueueFeedbacksAfter(after);
+    }
+
+    public long getLastExportedFeedbackId() {
+        return sheetsExportStateRepository.findById(SheetsExportState.FEEDBACKS)
+                .map(SheetsExportState::getLastExportedFeedbackId)
+                .orElse(0L);
+    }
+
+    public long getBacklogSize() {
+        return sheetsOutboxRepository.count();
+    }
+
+    /*
+     * Age of the oldest row still waiting for export; zero when the outbox is empty.
+     */
+    public Duration getOldestPendingAge() {
+        return sheetsOutboxRepository.findFirstByOrderByIdAsc()
+                .map(entry -> Duration.between(entry.getCreatedAt(), LocalDateTime.now()))
+                .orElse(Duration.ZERO);
+    }
+
+    /*
+     * Adds the outbox wait and the (shared) batch append to the trace of every exported feedback.
+     */
+    private void recordStages(List<SheetsOutboxEntry> entries, long appendStart, Throwable error) {
+        long appendEnd = System.currentTimeMillis();
+        for (SheetsOutboxEntry entry : entries) {
+            long queuedAt = entry.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            feedbackTracer.recordStage("sheets.outbox-wait", entry.getTraceParent(), queuedAt, appendStart, null);
+            feedbackTracer.recordStage("sheets.append", entry.getTraceParent(), appendStart, appendEnd, error);
+        }
+    }
+
+    private void advanceWatermark(long feedbackId) {
+        SheetsExportState state = sheetsExportStateRepository.findById(SheetsExportState.FEEDBACKS)
+                .orElseGet(() -> new SheetsExportState(SheetsExportState.FEEDBACKS, 0L, null));
+        if (feedbackId > state.getLastExportedFeedbackId()) {
+            state.setLastExportedFeedbackId(feedbackId);
+            sheetsExportStateRepository.save(state);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.UserSession;
+import com.shiningpr1sm.feedbackbot.model.UserState;
+import com.shiningpr1sm.feedbackbot.repository.UserSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Bounded, TTL-evicting cache in front of UserSessionRepository.
+ * Reads are served from memory; state changes only mark the entry dirty and are written
+ * in batches by flush(), so several transitions of one chat coalesce into a single UPDATE.
+ * In cluster mode a chat is cached only on the node that owns it (see ClusterCoordinator).
+ */
+@Service
+public class UserSessionCache {
+
+    private final UserSessionRepository userSessionRepository;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // access-ordered, guarded by "this"
+    private final LinkedHashMap<Long, CachedSession> sessions;
+    // dirty sessions evicted before they were flushed, guarded by "this"
+    private final Map<Long, UserSession> pendingWrites = new LinkedHashMap<>();
+    private final Object flushLock = new Object();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedSessions = new AtomicLong();
+    private final AtomicLong totalFlushMillis = new AtomicLong();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final Timer hitTimer;
+    private final Timer missTimer;
+    private final Timer flushTimer;
+    private final Counter flushFailures;
+
+    public UserSessionCache(UserSessionRepository userSessionRepository,
+                            @Value("${bot.session-cache.max-size:10000}") int maxSize,
+                            @Value("${bot.session-cache.ttl-minutes:30}") long ttlMinutes,
+                            MeterRegistry meterRegistry) {
+        this.userSessionRepository = userSessionRepository;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMinutes * 60_000L;
+        this.hitTimer = Timer.builder("feedbackbot.session.lookup").tag("result", "hit").register(meterRegistry);
+        this.missTimer = Timer.builder("feedbackbot.session.lookup").tag("result", "miss").register(meterRegistry);
+        this.flushTimer = Timer.builder("feedbackbot.session.flush")
+                .description("Batched write of dirty sessions")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("feedbackbot.session.flush.failures")
+                .description("Flushes that failed; their sessions stay dirty for the next one")
+                .register(meterRegistry);
+        Gauge.builder("feedbackbot.session.cache.size", this, UserSessionCache::size).register(meterRegistry);
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedSession> eldest) {
+                if (size() <= UserSessionCache.this.maxSize) {
+                    return false;
+                }
+                if (eldest.getValue().dirty) {
+                    pendingWrites.put(eldest.getKey(), eldest.getValue().session);
+                }
+                return true;
+            }
+        };
+    }
+
+    /*
+     * Returns the cached session, loading it from the database on a miss.
+     * A chat without a stored session gets a new START session (not persisted until saved).
+     */
+    public UserSession get(Long chatId) {
+        long start = System.nanoTime();
+        UserSession cached = getCached(chatId);
+        if (cached != null) {
+            hitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        UserSession loaded = load(chatId);
+        missTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return loaded;
+    }
+
+    private synchronized UserSession getCached(Long chatId) {
+        CachedSession cached = sessions.get(chatId);
+        if (cached != null && (cached.dirty || !isExpired(cached))) {
+            cached.lastAccess = System.currentTimeMillis();
+            hits.incrementAndGet();
+            return cached.session;
+        }
+        UserSession pending = pendingWrites.get(chatId);
+        if (pending != null) {
+            hits.incrementAndGet();
+            sessions.put(chatId, new CachedSession(pending, true));
+            pendingWrites.remove(chatId);
+            return pending;
+        }
+        return null;
+    }
+
+    private UserSession load(Long chatId) {
+        misses.incrementAndGet();
+        Optional<UserSession> stored = userSessionRepository.findByChatId(chatId);
+        UserSession session = stored.orElseGet(() -> new UserSession(chatId, UserState.START));
+        synchronized (this) {
+            CachedSession raced = sessions.get(chatId);
+            if (raced != null) {
+                return raced.session;
+            }
+            sessions.put(chatId, new CachedSession(session, false));
+        }
+        return session;
+    }
+
+    /*
+     * Records a state change; the row is written by the next flush.
+     */
+    public synchronized void save(UserSession session) {
+        CachedSession cached = sessions.get(session.getChatId());
+        if (cached != null && cached.session == session) {
+            cached.dirty = true;
+            cached.lastAccess = System.currentTimeMillis();
+        } else {
+            sessions.put(session.getChatId(), new CachedSession(session, true));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bot.session-cache.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<UserSession> snapshots = collectDirtySnapshots();
+            if (snapshots.isEmpty()) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                List<UserSession> saved = userSessionRepository.saveAll(snapshots);
+                assignGeneratedIds(saved);
+                flushedSessions.addAndGet(saved.size());
+            } catch (RuntimeException e) {
+                flushFailures.increment();
+                System.err.println("Error flushing " + snapshots.size() + " user sessions: " + e.getMessage());
+                requeue(snapshots);
+            } finally {
+                long elapsed = System.currentTimeMillis() - start;
+                flushTimer.record(elapsed, TimeUnit.MILLISECONDS);
+                lastFlushMillis.set(elapsed);
+                totalFlushMillis.addAndGet(elapsed);
+                flushes.incrementAndGet();
+            }
+        }
+    }
+
+    /*
+     * Chats moved to other nodes: their pending changes are written and the entries dropped, so the new owner
+     * reads the current row and this node never writes a stale copy over the owner's changes later.
+     */
+    @EventListener
+    public void onTopologyChanged(ClusterTopologyChangedEvent event) {
+        int evicted = evictMovedChats(event);
+        flush();
+        if (evicted > 0) {
+            System.out.println("Session cache: " + evicted + " chats moved to other nodes");
+        }
+    }
+
+    private synchronized int evictMovedChats(ClusterTopologyChangedEvent event) {
+        int evicted = 0;
+        Iterator<Map.Entry<Long, CachedSession>> iterator = sessions.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, CachedSession> entry = iterator.next();
+            if (event.isLocal(entry.getKey())) {
+                continue;
+            }
+            if (entry.getValue().dirty) {
+                pendingWrites.put(entry.getKey(), entry.getValue().session);
+            }
+            iterator.remove();
+            evicted++;
+        }
+        return evicted;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    public long getFlushedSessions() {
+        return flushedSessions.get();
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis.get();
+    }
+
+    public double getAverageFlushMillis() {
+        long count = flushes.get();
+        return count == 0 ? 0.0 : (double) totalFlushMillis.get() / count;
+    }
+
+    /*
+     * Copies dirty sessions (so handlers can keep mutating the originals while the batch is written)
+     * and drops expired clean entries.
+     */
+    private synchronized List<UserSession> collectDirtySnapshots() {
+        List<UserSession> snapshots = new ArrayList<>(pendingWrites.size());
+        for (UserSession pending : pendingWrites.values()) {
+            snapshots.add(copyOf(pending));
+        }
+        pendingWrites.clear();
+
+        Iterator<CachedSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            CachedSession cached = iterator.next();
+            if (cached.dirty) {
+                snapshots.add(copyOf(cached.session));
+                cached.dirty = false;
+            } else if (isExpired(cached)) {
+                iterator.remove();
+            }
+        }
+        return snapshots;
+    }
+
+    private synchronized void assignGeneratedIds(List<UserSession> saved) {
+        for (UserSession persisted : saved) {
+            CachedSession cached = sessions.get(persisted.getChatId());
+            if (cached != null && cached.session.getId() == null) {
+                cached.session.setId(persisted.getId());
+                cached.session.setCreatedAt(persisted.getCreatedAt());
+            }
+        }
+    }
+
+    private synchronized void requeue(List<UserSession> snapshots) {
+        for (UserSession snapshot : snapshots) {
+            CachedSession cached = sessions.get(snapshot.getChatId());
+            if (cached != null) {
+                cached.dirty = true;
+            } else {
+                pendingWrites.putIfAbsent(snapshot.getChatId(), snapshot);
+            }
+        }
+    }
+
+    private boolean isExpired(CachedSession cached) {
+        return System.currentTimeMillis() - cached.lastAccess > ttlMillis;
+    }
+
+    private static UserSession copyOf(UserSession session) {
+        return new UserSession(session.getId(), session.getChatId(), session.getState(), session.getRole(),
+                session.getBranch(), session.getCreatedAt(), session.getUpdatedAt());
+    }
+
+    private static final class CachedSession {
+        private final UserSession session;
+        private boolean dirty;
+        private long lastAccess;
+
+        private CachedSession(UserSession session, boolean dirty) {
+            this.session = session;
+            this.dirty = dirty;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
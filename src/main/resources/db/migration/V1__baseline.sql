@@ -0,0 +1,59 @@
+-- Baseline of the schema previously generated by Hibernate (ddl-auto=update).
+-- Idempotent, so it also applies cleanly to databases created before migrations were introduced.
+
+CREATE TABLE IF NOT EXISTS feedbacks (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    chat_id               BIGINT       NOT NULL,
+    employee_role         VARCHAR(255) NOT NULL,
+    branch                VARCHAR(255) NOT NULL,
+    message               TEXT         NOT NULL,
+    sentiment             VARCHAR(255),
+    criticality_level     INTEGER,
+    resolution_suggestion TEXT,
+    submitted_at          TIMESTAMP(6) NOT NULL,
+    trello_card_created   BOOLEAN      NOT NULL,
+    analysis_status       VARCHAR(255)
+);
+
+ALTER TABLE feedbacks ADD COLUMN IF NOT EXISTS analysis_status VARCHAR(255);
+
+CREATE TABLE IF NOT EXISTS user_sessions (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    chat_id    BIGINT       NOT NULL UNIQUE,
+    state      VARCHAR(255) NOT NULL,
+    role       VARCHAR(255),
+    branch     VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS analysis_cache (
+    cache_key             VARCHAR(64)  PRIMARY KEY,
+    prompt_version        VARCHAR(255) NOT NULL,
+    sentiment             VARCHAR(255) NOT NULL,
+    criticality_level     INTEGER      NOT NULL,
+    resolution_suggestion TEXT,
+    created_at            TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS analysis_jobs (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    feedback_id  BIGINT       NOT NULL UNIQUE,
+    attempts     INTEGER      NOT NULL,
+    available_at TIMESTAMP(6) NOT NULL,
+    locked_by    VARCHAR(255),
+    locked_until TIMESTAMP(6),
+    created_at   TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS sheets_outbox (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    feedback_id BIGINT       NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS sheets_export_state (
+    name                      VARCHAR(255) PRIMARY KEY,
+    last_exported_feedback_id BIGINT       NOT NULL,
+    updated_at                TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,46 @@
+-- Indexes for the admin filter shapes. Every admin query orders by (submitted_at, id) and pages by keyset,
+-- so each index ends with those columns: an equality filter plus the keyset/date range becomes one index
+-- range scan that already returns rows in order (scanned backwards for the default newest-first order).
+
+-- No filter, or only a date range.
+CREATE INDEX IF NOT EXISTS idx_feedbacks_submitted_at_id
+    ON feedbacks (submitted_at, id);
+
+-- branch, optionally combined with role: (branch, role) is the most common drill-down.
+CREATE INDEX IF NOT EXISTS idx_feedbacks_branch_submitted_at_id
+    ON feedbacks (branch, submitted_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_feedbacks_branch_role_submitted_at_id
+    ON feedbacks (branch, employee_role, submitted_at, id);
+
+CREATE INDEX IF NOT EXISTS idx_feedbacks_role_submitted_at_id
+    ON feedbacks (employee_role, submitted_at, id);
+
+-- sentiment and criticality are NULL until analysis completes; the planner matches "col = ?"
+-- against these partial indexes, which leave the PENDING rows out.
+CREATE INDEX IF NOT EXISTS idx_feedbacks_criticality_submitted_at_id
+    ON feedbacks (criticality_level, submitted_at, id)
+    WHERE criticality_level IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_feedbacks_sentiment_submitted_at_id
+    ON feedbacks (sentiment, submitted_at, id)
+    WHERE sentiment IS NOT NULL;
+
+-- Small, hot set of feedbacks still waiting for analysis.
+CREATE INDEX IF NOT EXISTS idx_feedbacks_pending
+    ON feedbacks (id)
+    WHERE analysis_status = 'PENDING';
+
+-- user_sessions.chat_id (findByChatId) is served by the index behind its UNIQUE constraint; no second index.
+
+-- Job queue polling: WHERE available_at <= now ... ORDER BY id.
+CREATE INDEX IF NOT EXISTS idx_analysis_jobs_available_at
+    ON analysis_jobs (available_at);
+
+-- Outbox lookups by feedback (resync de-duplication).
+CREATE INDEX IF NOT EXISTS idx_sheets_outbox_feedback_id
+    ON sheets_outbox (feedback_id);
+
+-- Cache invalidation deletes entries of older prompt versions.
+CREATE INDEX IF NOT EXISTS idx_analysis_cache_prompt_version
+    ON analysis_cache (prompt_version);
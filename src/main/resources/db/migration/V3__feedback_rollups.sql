@@ -0,0 +1,14 @@
+-- Pre-aggregated dashboard counters per day x branch x role x sentiment, maintained incrementally
+-- when a feedback is analyzed (only analyzed feedbacks have a sentiment) and rebuildable from feedbacks.
+-- Average criticality = criticality_sum / criticality_count.
+
+CREATE TABLE IF NOT EXISTS feedback_rollups (
+    day               DATE         NOT NULL,
+    branch            VARCHAR(255) NOT NULL,
+    employee_role     VARCHAR(255) NOT NULL,
+    sentiment         VARCHAR(255) NOT NULL,
+    feedback_count    BIGINT       NOT NULL,
+    criticality_sum   BIGINT       NOT NULL,
+    criticality_count BIGINT       NOT NULL,
+    PRIMARY KEY (day, branch, employee_role, sentiment)
+);
@@ -0,0 +1,22 @@
+-- Full-text search over feedback messages and resolution suggestions.
+-- PostgreSQL ships no Ukrainian stemmer, so feedback_uk is a copy of "simple" (lower-casing, no stop words,
+-- no stemming); inflected forms are matched by prefix queries (term:*) built by FeedbackSearchRepository.
+-- A hunspell-based Ukrainian dictionary can later be mapped into this configuration without touching the code.
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config c JOIN pg_namespace n ON n.oid = c.cfgnamespace
+                   WHERE c.cfgname = 'feedback_uk' AND n.nspname = '${flyway:defaultSchema}') THEN
+        CREATE TEXT SEARCH CONFIGURATION ${flyway:defaultSchema}.feedback_uk (COPY = pg_catalog.simple);
+    END IF;
+END
+$$;
+
+ALTER TABLE feedbacks ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('${flyway:defaultSchema}.feedback_uk'::regconfig, coalesce(message, '')), 'A') ||
+        setweight(to_tsvector('${flyway:defaultSchema}.feedback_uk'::regconfig, coalesce(resolution_suggestion, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_feedbacks_search_vector
+    ON feedbacks USING GIN (search_vector);
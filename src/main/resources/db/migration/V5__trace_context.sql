@@ -0,0 +1,5 @@
+-- W3C traceparent of the feedback's trace, so the analysis worker and the Sheets relay
+-- (possibly on another instance, possibly after a restart) continue the same trace.
+
+ALTER TABLE analysis_jobs ADD COLUMN IF NOT EXISTS trace_parent VARCHAR(55);
+ALTER TABLE sheets_outbox ADD COLUMN IF NOT EXISTS trace_parent VARCHAR(55);
@@ -0,0 +1,18 @@
+-- Coordination of several bot instances (cluster.enabled=true). Every node keeps its row in cluster_nodes
+-- fresh; chats are partitioned over the nodes with a recent heartbeat. Singleton roles (Telegram ingestion,
+-- the Sheets relay) are leases in cluster_leases: held while renewed, taken over by another node once expired.
+-- All timestamps come from the database clock, so the nodes' clocks need not agree.
+
+CREATE TABLE IF NOT EXISTS cluster_nodes (
+    node_id      VARCHAR(255) PRIMARY KEY,
+    base_url     VARCHAR(255) NOT NULL,
+    started_at   TIMESTAMP    NOT NULL,
+    heartbeat_at TIMESTAMP    NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS cluster_leases (
+    name        VARCHAR(64)  PRIMARY KEY,
+    owner       VARCHAR(255) NOT NULL,
+    acquired_at TIMESTAMP    NOT NULL,
+    expires_at  TIMESTAMP    NOT NULL
+);
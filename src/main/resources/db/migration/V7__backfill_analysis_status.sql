@@ -0,0 +1,20 @@
+-- analysis_status was added to existing deployments without a value, so feedbacks stored before it stayed NULL
+-- and every ANALYZED-based read (rollups, column store, admin shapes) skipped them. A feedback with a sentiment
+-- was analyzed; one without never got a result and is marked FAILED.
+
+UPDATE feedbacks SET analysis_status = 'ANALYZED'
+WHERE analysis_status IS NULL AND sentiment IS NOT NULL;
+
+UPDATE feedbacks SET analysis_status = 'FAILED'
+WHERE analysis_status IS NULL;
+
+-- Recompute the rollups so they include the backfilled feedbacks (same aggregation as a rollup rebuild).
+DELETE FROM feedback_rollups;
+
+INSERT INTO feedback_rollups
+    (day, branch, employee_role, sentiment, feedback_count, criticality_sum, criticality_count)
+SELECT CAST(f.submitted_at AS DATE), f.branch, f.employee_role, f.sentiment,
+       COUNT(*), COALESCE(SUM(f.criticality_level), 0), COUNT(f.criticality_level)
+FROM feedbacks f
+WHERE f.analysis_status = 'ANALYZED' AND f.sentiment IS NOT NULL
+GROUP BY 1, 2, 3, 4;
@@ -0,0 +1,8 @@
+-- Feedbacks analyzed while a rollup rebuild held its lock. The analysis does not wait for the rebuild
+-- (that would hold a pooled connection per waiting job); it records the feedback here in the same transaction
+-- that marks it ANALYZED. The rebuild skips these feedbacks and they are added to feedback_rollups afterwards.
+
+CREATE TABLE IF NOT EXISTS feedback_rollup_backlog (
+    feedback_id BIGINT    PRIMARY KEY REFERENCES feedbacks (id) ON DELETE CASCADE,
+    created_at  TIMESTAMP NOT NULL DEFAULT now()
+);
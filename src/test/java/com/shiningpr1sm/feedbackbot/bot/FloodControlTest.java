@@ -0,0 +1,106 @@
+package com.shiningpr1sm.feedbackbot.bot;
+
+import com.shiningpr1sm.feedbackbot.bot.FloodControl.Verdict;
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.UserSession;
+import com.shiningpr1sm.feedbackbot.model.UserState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FloodControlTest {
+
+    private static final long CHAT = 1001L;
+
+    @Test
+    void allowsTheBurstThenThrottlesOnce() {
+        // one message per minute with a burst of 2: the third message in a row is over the limit
+        FloodControl floodControl = floodControl(true, 1, 2, 1000, 1000, 0);
+
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.ALLOWED);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.ALLOWED);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.THROTTLED);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.DROPPED);
+    }
+
+    @Test
+    void chatsHaveTheirOwnBuckets() {
+        FloodControl floodControl = floodControl(true, 1, 1, 1000, 1000, 0);
+
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.ALLOWED);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.THROTTLED);
+        assertThat(floodControl.check(CHAT + 1)).isEqualTo(Verdict.ALLOWED);
+        assertThat(floodControl.getTrackedChats()).isEqualTo(2);
+    }
+
+    @Test
+    void nodeWideLimitAppliesAcrossChats() {
+        FloodControl floodControl = floodControl(true, 60, 5, 1, 1, 0);
+
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.ALLOWED);
+        assertThat(floodControl.check(CHAT + 1)).isEqualTo(Verdict.BUSY);
+    }
+
+    @Test
+    void repeatedThrottlingBlocksTheChat() {
+        FloodControl floodControl = floodControl(true, 1, 1, 1000, 1000, 3);
+
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.ALLOWED);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.THROTTLED);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.DROPPED);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.BLOCKED);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.DROPPED);
+        assertThat(floodControl.getVerdictCounts())
+                .containsEntry("allowed", 1L)
+                .containsEntry("throttled", 1L)
+                .containsEntry("blocked", 1L)
+                .containsEntry("dropped", 2L);
+    }
+
+    @Test
+    void disabledFloodControlAllowsEverything() {
+        FloodControl floodControl = floodControl(false, 1, 1, 1, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.ALLOWED);
+        }
+    }
+
+    @Test
+    void storedBlockIsReArmed() {
+        FloodControl floodControl = floodControl(true, 60, 5, 1000, 1000, 3);
+        UserSession session = session(LocalDateTime.now());
+
+        assertThat(floodControl.isStillBlocked(session)).isTrue();
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.DROPPED);
+    }
+
+    @Test
+    void expiredBlockLetsTheUserContinue() {
+        FloodControl floodControl = floodControl(true, 60, 5, 1000, 1000, 3);
+        UserSession session = session(LocalDateTime.now().minusHours(2));
+
+        assertThat(floodControl.isStillBlocked(session)).isFalse();
+        assertThat(session.getState()).isEqualTo(UserState.READY_FOR_FEEDBACK);
+        assertThat(floodControl.check(CHAT)).isEqualTo(Verdict.ALLOWED);
+    }
+
+    private static FloodControl floodControl(boolean enabled, int chatPerMinute, int chatBurst,
+                                             int globalPerSecond, int globalBurst, int blockAfter) {
+        return new FloodControl(enabled, chatPerMinute, chatBurst, globalPerSecond, globalBurst,
+                blockAfter, 300, 60, new SimpleMeterRegistry());
+    }
+
+    private static UserSession session(LocalDateTime blockedAt) {
+        UserSession session = new UserSession();
+        session.setChatId(CHAT);
+        session.setRole(EmployeeRole.МЕХАНІК);
+        session.setBranch("Київ");
+        session.setState(UserState.BLOCKED);
+        session.setUpdatedAt(blockedAt);
+        return session;
+    }
+}
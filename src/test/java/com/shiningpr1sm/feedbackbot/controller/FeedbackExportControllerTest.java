@@ -0,0 +1,73 @@
+package com.shiningpr1sm.feedbackbot.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedbackExportControllerTest {
+
+    @Test
+    void plainValueIsWrittenAsIs() throws IOException {
+        assertThat(csvField("Все добре")).isEqualTo("Все добре");
+    }
+
+    @Test
+    void nullIsAnEmptyField() throws IOException {
+        assertThat(csvField(null)).isEmpty();
+    }
+
+    @Test
+    void separatorsAndQuotesAreQuoted() throws IOException {
+        assertThat(csvField("a,b")).isEqualTo("\"a,b\"");
+        assertThat(csvField("він сказав \"ні\"")).isEqualTo("\"він сказав \"\"ні\"\"\"");
+        assertThat(csvField("рядок\nще")).isEqualTo("\"рядок\nще\"");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"=SUM(A1:A9)", "+1", "-2+3", "@SUM(A1)", "\tcmd"})
+    void formulaTriggersAreNeutralized(String value) throws IOException {
+        assertThat(csvField(value)).isEqualTo("'" + value);
+    }
+
+    @Test
+    void neutralizedValueIsStillQuotedWhenNeeded() throws IOException {
+        assertThat(csvField("=1,2")).isEqualTo("\"'=1,2\"");
+        assertThat(csvField("\rcmd")).isEqualTo("\"'\rcmd\"");
+        assertThat(csvField("=HYPERLINK(\"x\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "gzip|true",
+            "gzip, deflate, br|true",
+            "GZIP;Q=0.5|true",
+            "x-gzip|true",
+            "*|true",
+            "gzip;q=0|false",
+            "gzip;q=0.0, deflate|false",
+            "deflate, br|false",
+            "*;q=0|false",
+            "gzip;q=0, *|false",
+            "identity, *;q=0.1|true"
+    })
+    void acceptEncodingQualitiesAreHonoured(String acceptEncoding, boolean expected) {
+        assertThat(FeedbackExportController.acceptsGzip(acceptEncoding)).isEqualTo(expected);
+    }
+
+    @Test
+    void missingAcceptEncodingMeansNoCompression() {
+        assertThat(FeedbackExportController.acceptsGzip(null)).isFalse();
+    }
+
+    private static String csvField(String value) throws IOException {
+        StringWriter writer = new StringWriter();
+        FeedbackExportController.writeCsvField(writer, value);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.shiningpr1sm.feedbackbot.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedbackCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        FeedbackCursor cursor = new FeedbackCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000), 987_654L);
+
+        assertThat(FeedbackCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        String encoded = new FeedbackCursor(LocalDateTime.of(2024, 12, 31, 23, 59, 59), Long.MAX_VALUE).encode();
+
+        assertThat(encoded).doesNotContain("+", "/", "=");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "not base64!", "MjAyNC0wMy0wMQ", "bm8tc2VwYXJhdG9y"})
+    void malformedCursorIsRejected(String cursor) {
+        assertThatThrownBy(() -> FeedbackCursor.decode(cursor)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.repository.ClusterNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterCoordinatorTest {
+
+    private static final ClusterNode NODE_A = new ClusterNode("node-a", "http://a:8080");
+    private static final ClusterNode NODE_B = new ClusterNode("node-b", "http://b:8080");
+    private static final ClusterNode NODE_C = new ClusterNode("node-c", "http://c:8080");
+
+    @Test
+    void noNodesMeansNoOwner() {
+        assertThat(ClusterCoordinator.ownerOf(42L, List.of())).isNull();
+    }
+
+    @Test
+    void singleNodeOwnsEveryChat() {
+        for (long chatId = -100; chatId < 100; chatId++) {
+            assertThat(ClusterCoordinator.ownerOf(chatId, List.of(NODE_A))).isEqualTo(NODE_A);
+        }
+    }
+
+    @Test
+    void ownerDoesNotDependOnNodeOrder() {
+        for (long chatId = 0; chatId < 1000; chatId++) {
+            assertThat(ClusterCoordinator.ownerOf(chatId, List.of(NODE_A, NODE_B, NODE_C)))
+                    .isEqualTo(ClusterCoordinator.ownerOf(chatId, List.of(NODE_C, NODE_A, NODE_B)));
+        }
+    }
+
+    @Test
+    void removingANodeMovesOnlyItsChats() {
+        for (long chatId = 0; chatId < 1000; chatId++) {
+            ClusterNode owner = ClusterCoordinator.ownerOf(chatId, List.of(NODE_A, NODE_B, NODE_C));
+            ClusterNode afterLeave = ClusterCoordinator.ownerOf(chatId, List.of(NODE_A, NODE_B));
+            if (!owner.equals(NODE_C)) {
+                assertThat(afterLeave).isEqualTo(owner);
+            }
+        }
+    }
+
+    @Test
+    void chatsAreSpreadOverTheNodes() {
+        List<ClusterNode> nodes = new ArrayList<>(List.of(NODE_A, NODE_B, NODE_C));
+        Map<ClusterNode, Integer> owned = new HashMap<>();
+        for (long chatId = 0; chatId < 3000; chatId++) {
+            owned.merge(ClusterCoordinator.ownerOf(chatId, nodes), 1, Integer::sum);
+        }
+
+        assertThat(owned).containsOnlyKeys(NODE_A, NODE_B, NODE_C);
+        assertThat(owned.values()).allSatisfy(count -> assertThat(count).isBetween(700, 1300));
+    }
+}
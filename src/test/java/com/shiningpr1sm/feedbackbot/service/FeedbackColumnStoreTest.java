@@ -0,0 +1,101 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.EmployeeRole;
+import com.shiningpr1sm.feedbackbot.model.Feedback;
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import com.shiningpr1sm.feedbackbot.repository.FeedbackRepository;
+import com.shiningpr1sm.feedbackbot.service.FeedbackColumnStore.Dimension;
+import com.shiningpr1sm.feedbackbot.service.FeedbackColumnStore.Group;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class FeedbackColumnStoreTest {
+
+    private FeedbackColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new FeedbackColumnStore(mock(FeedbackRepository.class), mock(PlatformTransactionManager.class), true);
+        analyzed(1L, "Київ", EmployeeRole.МЕХАНІК, FeedbackSentiment.POSITIVE, 1, LocalDateTime.of(2024, 3, 1, 10, 0));
+        analyzed(2L, "Львів", EmployeeRole.МЕХАНІК, FeedbackSentiment.POSITIVE, 3, LocalDateTime.of(2024, 3, 1, 11, 0));
+        analyzed(3L, "Київ", EmployeeRole.МЕНЕДЖЕР, FeedbackSentiment.NEGATIVE, 5, LocalDateTime.of(2024, 3, 2, 9, 0));
+        analyzed(4L, "Львів", EmployeeRole.ЕЛЕКТРИК, FeedbackSentiment.NEUTRAL, null, LocalDateTime.of(2024, 3, 3, 9, 0));
+    }
+
+    @Test
+    void groupKeysDecodeBackToRoleAndSentiment() {
+        List<Group> groups = store.query(null, null, null, null, null, null, List.of(Dimension.ROLE, Dimension.SENTIMENT));
+
+        assertThat(groups).containsExactlyInAnyOrder(
+                new Group("МЕХАНІК", "POSITIVE", null, null, null, 2, 2.0),
+                new Group("ЕЛЕКТРИК", "NEUTRAL", null, null, null, 1, null),
+                new Group("МЕНЕДЖЕР", "NEGATIVE", null, null, null, 1, 5.0));
+    }
+
+    @Test
+    void dayKeysAreOffsetFromTheRangeStart() {
+        List<Group> groups = store.query(null, null, null, null, LocalDateTime.of(2024, 3, 1, 12, 0), null,
+                List.of(Dimension.BRANCH, Dimension.DAY));
+
+        assertThat(groups).containsExactlyInAnyOrder(
+                new Group(null, null, null, "Київ", LocalDate.of(2024, 3, 2), 1, 5.0),
+                new Group(null, null, null, "Львів", LocalDate.of(2024, 3, 3), 1, null));
+    }
+
+    @Test
+    void criticalityGroupsIncludeTheUnratedLevel() {
+        List<Group> groups = store.query(null, null, null, null, null, null, List.of(Dimension.CRITICALITY));
+
+        assertThat(groups).extracting(Group::criticality).containsExactlyInAnyOrder(0, 1, 3, 5);
+    }
+
+    @Test
+    void filtersAreCombined() {
+        List<Group> groups = store.query("Київ", null, null, 5, null, null, List.of());
+
+        assertThat(groups).containsExactly(new Group(null, null, null, null, null, 1, 5.0));
+    }
+
+    @Test
+    void unknownBranchMatchesNothing() {
+        assertThat(store.query("Одеса", null, null, null, null, null, List.of(Dimension.ROLE))).isEmpty();
+    }
+
+    @Test
+    void duplicateAndUnanalyzedFeedbacksAreSkipped() {
+        analyzed(1L, "Київ", EmployeeRole.МЕХАНІК, FeedbackSentiment.POSITIVE, 1, LocalDateTime.of(2024, 3, 1, 10, 0));
+        analyzed(5L, "Київ", EmployeeRole.МЕХАНІК, null, null, LocalDateTime.of(2024, 3, 4, 10, 0));
+
+        assertThat(store.getRowCount()).isEqualTo(4);
+        assertThat(store.getBranchCount()).isEqualTo(2);
+    }
+
+    @Test
+    void tooManyGroupsAreRejected() {
+        analyzed(10L, "Київ", EmployeeRole.МЕХАНІК, FeedbackSentiment.POSITIVE, 1, LocalDateTime.of(1990, 1, 1, 0, 0));
+
+        assertThatThrownBy(() -> store.query(null, null, null, null, null, null, List.of(Dimension.values())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void analyzed(Long id, String branch, EmployeeRole role, FeedbackSentiment sentiment,
+                          Integer criticality, LocalDateTime submittedAt) {
+        store.onFeedbackAnalyzed(new FeedbackAnalyzedEvent(Feedback.builder()
+                .id(id)
+                .branch(branch)
+                .employeeRole(role)
+                .sentiment(sentiment)
+                .criticalityLevel(criticality)
+                .submittedAt(submittedAt)
+                .build()));
+    }
+}
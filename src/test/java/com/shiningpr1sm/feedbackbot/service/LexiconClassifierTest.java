@@ -0,0 +1,79 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.model.FeedbackSentiment;
+import com.shiningpr1sm.feedbackbot.service.OpenAIService.AnalysisResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LexiconClassifierTest {
+
+    private final LexiconClassifier classifier = new LexiconClassifier(0.85, 6);
+
+    @Test
+    void shortThankYouSkipsTheModel() {
+        Optional<AnalysisResult> result = classifier.classifyConfidently("Дякую, все супер!");
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getSentiment()).isEqualTo(FeedbackSentiment.POSITIVE);
+        assertThat(result.get().getCriticalityLevel()).isEqualTo(1);
+        assertThat(result.get().isFallback()).isFalse();
+    }
+
+    @Test
+    void fireSafetyTrainingIsNotAnIncident() {
+        LexiconClassifier.Classification classification = classifier.classify("Дякую за навчання з пожежної безпеки");
+
+        assertThat(classification.sentiment()).isEqualTo(FeedbackSentiment.POSITIVE);
+        assertThat(classification.criticalityLevel()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Пожежа на складі!",
+            "Травма на дільниці",
+            "Дякую, травм цього місяця не було",
+            "Коли буде інструктаж щодо травм?",
+            "Запах газу біля боксу"
+    })
+    void criticalKeywordsAlwaysGoToTheModel(String message) {
+        assertThat(classifier.classifyConfidently(message)).isEmpty();
+    }
+
+    @Test
+    void criticalKeywordKeepsItsLevelInDegradedMode() {
+        AnalysisResult result = classifier.fallback("Пожежа на складі!");
+
+        assertThat(result.getSentiment()).isEqualTo(FeedbackSentiment.NEGATIVE);
+        assertThat(result.getCriticalityLevel()).isEqualTo(5);
+        assertThat(result.isFallback()).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Без травм", "Тиждень минув без травм", "Не вибух, просто шум"})
+    void negatedCriticalKeywordsDoNotCount(String message) {
+        assertThat(classifier.classify(message).criticalityLevel()).isLessThan(4);
+    }
+
+    @Test
+    void missingExtinguisherIsCritical() {
+        assertThat(classifier.classify("Немає вогнегасника в цеху").criticalityLevel()).isEqualTo(4);
+    }
+
+    @Test
+    void negatedPraiseIsNegative() {
+        assertThat(classifier.classify("Не добре").sentiment()).isEqualTo(FeedbackSentiment.NEGATIVE);
+    }
+
+    @Test
+    void neutralMessageIsNotConfident() {
+        LexiconClassifier.Classification classification = classifier.classify("Коли буде графік змін на наступний місяць");
+
+        assertThat(classification.sentiment()).isEqualTo(FeedbackSentiment.NEUTRAL);
+        assertThat(classifier.classifyConfidently("Коли буде графік змін на наступний місяць")).isEmpty();
+    }
+}
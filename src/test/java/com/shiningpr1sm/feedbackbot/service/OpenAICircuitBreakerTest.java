@@ -0,0 +1,105 @@
+package com.shiningpr1sm.feedbackbot.service;
+
+import com.shiningpr1sm.feedbackbot.service.OpenAICircuitBreaker.Permit;
+import com.shiningpr1sm.feedbackbot.service.OpenAICircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAICircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        OpenAICircuitBreaker breaker = new OpenAICircuitBreaker(3, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure(breaker.tryAcquirePermission());
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        assertThat(breaker.getRejectedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        OpenAICircuitBreaker breaker = new OpenAICircuitBreaker(3, 60_000);
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onSuccess(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.getConsecutiveFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void allowsASingleTrialOnceTheOpenDurationHasPassed() {
+        OpenAICircuitBreaker breaker = openBreaker();
+
+        Permit trial = breaker.tryAcquirePermission();
+
+        assertThat(trial).isNotNull();
+        assertThat(trial.trial()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    void successfulTrialClosesTheBreaker() {
+        OpenAICircuitBreaker breaker = openBreaker();
+
+        breaker.onSuccess(breaker.tryAcquirePermission());
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.getConsecutiveFailures()).isZero();
+    }
+
+    @Test
+    void failedTrialOpensTheBreakerAgain() {
+        OpenAICircuitBreaker breaker = openBreaker();
+
+        breaker.onFailure(breaker.tryAcquirePermission());
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void ignoredTrialReleasesTheTrialSlot() {
+        OpenAICircuitBreaker breaker = openBreaker();
+
+        breaker.onIgnored(breaker.tryAcquirePermission());
+
+        Permit next = breaker.tryAcquirePermission();
+        assertThat(next).isNotNull();
+        assertThat(next.trial()).isTrue();
+    }
+
+    @Test
+    void staleCallsDoNotTouchTheTrial() {
+        OpenAICircuitBreaker breaker = new OpenAICircuitBreaker(1, 0);
+        Permit stale = breaker.tryAcquirePermission();
+        breaker.onFailure(breaker.tryAcquirePermission());
+        Permit trial = breaker.tryAcquirePermission();
+
+        breaker.onIgnored(stale);
+        breaker.onSuccess(stale);
+        breaker.onFailure(stale);
+
+        assertThat(trial.trial()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    /*
+     * Opened by two failures, with an open duration of zero so the next call is the trial.
+     */
+    private static OpenAICircuitBreaker openBreaker() {
+        OpenAICircuitBreaker breaker = new OpenAICircuitBreaker(2, 0);
+        breaker.onFailure(breaker.tryAcquirePermission());
+        breaker.onFailure(breaker.tryAcquirePermission());
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        return breaker;
+    }
+}